@@ -6,6 +6,8 @@ import javafx.stage.Stage;
 import net.exodiusmc.platformer.client.view.LoginView;
 import net.exodiusmc.platformer.shared.SharedUtil;
 import net.exodiusmc.platformer.shared.TransferPackets;
+import net.exodiusmc.platformer.shared.nio.SharedEventLoopGroup;
+import net.exodiusmc.platformer.shared.nio.Transport;
 import net.exodiusmc.platformer.shared.nio.client.NetworkClient;
 
 import java.util.ArrayList;
@@ -27,6 +29,7 @@ public class TransferClient extends Application {
     private String nickname;
     private Server remote;
     private NetworkClient client;
+    private SharedEventLoopGroup client_group;
 
     @Override
     public void start(Stage window) throws Exception {
@@ -34,6 +37,9 @@ public class TransferClient extends Application {
         this.main_window = window;
         this.windows = new ArrayList<>();
 
+        // Reused by every connection, so switching servers doesn't restart threads
+        this.client_group = SharedEventLoopGroup.create(Transport.AUTO, 1, "transfer-client");
+
         // Configure le main window
         window.setWidth(WIDTH);
         window.setHeight(HEIGHT);
@@ -74,6 +80,7 @@ public class TransferClient extends Application {
 
                 .useLogger(SharedUtil.logger())
                 .packets(TransferPackets.list())
+                .eventLoopGroup(client_group)
 
                 .buildAndStart();
 
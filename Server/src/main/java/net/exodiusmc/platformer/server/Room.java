@@ -0,0 +1,349 @@
+package net.exodiusmc.platformer.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
+import net.exodiusmc.platformer.shared.nio.PacketConnection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A chat room, owned by a single event loop. Everything that happens to the
+ * room is posted to its mailbox, which is drained by the owning loop, so the
+ * room itself is only ever touched by one thread at a time and needs no locks.
+ * Moving the room to another loop is a message as well, messages posted before
+ * and after the move keep their order.
+ * <br>
+ * The members are kept in a copy-on-write array, grouped by the event loop
+ * they live on, so a publish can hand every loop a single slice of the array
+ * without copying or allocating per member. A room is closed as soon as its
+ * last member leaves, after which it can not be joined anymore.
+ * <br>
+ * The last published frames are kept in a fixed size ring, bounded both in
+ * frames and in bytes, so members joining later can be sent the history
+ * without encoding it again.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+final class Room implements Runnable {
+
+    private static final PacketConnection[] EMPTY = new PacketConnection[0];
+    private static final int DRAIN_BATCH = 64;
+
+    private static final AtomicIntegerFieldUpdater<Room> SCHEDULED =
+        AtomicIntegerFieldUpdater.newUpdater(Room.class, "scheduled");
+
+    private final String name;
+    private final ByteBuf[] history;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private volatile EventLoop owner;
+    private volatile int scheduled;
+
+    // Only written by the owning loop
+    private volatile PacketConnection[] members = EMPTY;
+    private volatile long load;
+    private volatile long last_publish;
+    private volatile int history_bytes;
+    private int history_head;
+    private int history_size;
+    private boolean closed;
+
+    // Only accessed while rebalancing
+    long sampled_load;
+    long sampled_delta;
+
+    /**
+     * Create a new Room
+     *
+     * @param name Room name
+     * @param owner EventLoop owning the room
+     * @param history Amount of frames kept as history
+     */
+    Room(String name, EventLoop owner, int history) {
+        this.name = name;
+        this.owner = owner;
+        this.history = new ByteBuf[history];
+    }
+
+    /**
+     * Returns the name of this room
+     *
+     * @return String
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * Returns the event loop owning this room
+     *
+     * @return EventLoop
+     */
+    EventLoop owner() {
+        return owner;
+    }
+
+    /**
+     * Returns a snapshot of the members, grouped by event loop.
+     * The array must not be modified.
+     *
+     * @return PacketConnection array
+     */
+    PacketConnection[] members() {
+        return members;
+    }
+
+    /**
+     * Returns the amount of frames published by this room so far
+     *
+     * @return long
+     */
+    long load() {
+        return load;
+    }
+
+    /**
+     * Returns the time of the last publish, in milliseconds
+     *
+     * @return long
+     */
+    long lastPublish() {
+        return last_publish;
+    }
+
+    /**
+     * Returns the amount of bytes kept as history
+     *
+     * @return int
+     */
+    int historyBytes() {
+        return history_bytes;
+    }
+
+    /**
+     * Post a message to the mailbox. Messages run on the owning loop,
+     * one at a time, in the order they were posted.
+     *
+     * @param message Message
+     */
+    void post(Runnable message) {
+        mailbox.add(message);
+        schedule();
+    }
+
+    @Override
+    public void run() {
+        EventLoop loop = owner;
+
+        try {
+            // Stop draining when the room moved, the rest runs on the new owner
+            for(int i = 0; i < DRAIN_BATCH && owner == loop; i++) {
+                Runnable message = mailbox.poll();
+
+                if(message == null) break;
+
+                message.run();
+            }
+        } finally {
+            scheduled = 0;
+
+            if(!mailbox.isEmpty()) schedule();
+        }
+    }
+
+    /**
+     * Add a member, next to the other members on its event loop.
+     * Must be called from the owning loop.
+     *
+     * @param conn PacketConnection
+     * @return false when the room was closed
+     */
+    boolean add(PacketConnection conn) {
+        if(closed) return false;
+
+        PacketConnection[] current = members;
+        EventLoop loop = conn.channel().eventLoop();
+        int index = current.length;
+
+        // Insert behind the last member on the same loop
+        for(int i = current.length - 1; i >= 0; i--) {
+            if(current[i].channel().eventLoop() == loop) {
+                index = i + 1;
+                break;
+            }
+        }
+
+        PacketConnection[] grown = new PacketConnection[current.length + 1];
+
+        System.arraycopy(current, 0, grown, 0, index);
+        System.arraycopy(current, index, grown, index + 1, current.length - index);
+        grown[index] = conn;
+
+        members = grown;
+
+        return true;
+    }
+
+    /**
+     * Remove a member, closing the room when it was the last one, or when
+     * the room is empty because the member left before it was added.
+     * Must be called from the owning loop.
+     *
+     * @param conn PacketConnection
+     * @return true when the room is closed now
+     */
+    boolean remove(PacketConnection conn) {
+        PacketConnection[] current = members;
+
+        for(int i = 0; i < current.length; i++) {
+            if(current[i] != conn) continue;
+
+            if(current.length == 1) {
+                members = EMPTY;
+                closed = true;
+                return true;
+            }
+
+            PacketConnection[] shrunk = new PacketConnection[current.length - 1];
+
+            System.arraycopy(current, 0, shrunk, 0, i);
+            System.arraycopy(current, i + 1, shrunk, i, shrunk.length - i);
+
+            members = shrunk;
+            return false;
+        }
+
+        return closeIfEmpty();
+    }
+
+    /**
+     * Close the room when it has no members. Must be called from the owning loop.
+     *
+     * @return true when the room is closed now
+     */
+    boolean closeIfEmpty() {
+        if(members.length == 0) closed = true;
+
+        return closed;
+    }
+
+    /**
+     * Count frames published to the members. Must be called from the owning loop.
+     *
+     * @param frames Amount of frames
+     */
+    void addLoad(int frames) {
+        load = load + frames;
+    }
+
+    /**
+     * Keep a published frame as history, dropping the oldest frames
+     * when the ring or the byte limit is full. Frames larger than
+     * the byte limit, or published after the room closed, are not kept.
+     * Must be called from the owning loop.
+     *
+     * @param frame Encoded frame
+     * @param max_bytes Max amount of bytes kept
+     * @return Change in the amount of bytes kept
+     */
+    int record(ByteBuf frame, int max_bytes) {
+        last_publish = System.currentTimeMillis();
+
+        // Count the memory held, not just the bytes written
+        int size = frame.capacity();
+
+        if(closed || history.length == 0 || size > max_bytes) return 0;
+
+        int before = history_bytes;
+        int bytes = before;
+
+        while(history_size == history.length || (history_size > 0 && bytes + size > max_bytes)) {
+            ByteBuf oldest = history[history_head];
+
+            history[history_head] = null;
+            history_head = (history_head + 1) % history.length;
+            history_size--;
+
+            bytes -= oldest.capacity();
+            oldest.release();
+        }
+
+        history[(history_head + history_size) % history.length] = frame.retainedDuplicate();
+        history_size++;
+
+        history_bytes = bytes + size;
+
+        return history_bytes - before;
+    }
+
+    /**
+     * Returns the history, oldest frame first. Every frame is a retained
+     * duplicate, owned by the caller. Must be called from the owning loop.
+     *
+     * @return Frame list
+     */
+    List<ByteBuf> history() {
+        if(history_size == 0) return Collections.emptyList();
+
+        List<ByteBuf> frames = new ArrayList<>(history_size);
+
+        for(int i = 0; i < history_size; i++) {
+            frames.add(history[(history_head + i) % history.length].retainedDuplicate());
+        }
+
+        return frames;
+    }
+
+    /**
+     * Release the history. Must be called from the owning loop.
+     *
+     * @return Amount of bytes released
+     */
+    int clearHistory() {
+        for(int i = 0; i < history_size; i++) {
+            int index = (history_head + i) % history.length;
+
+            history[index].release();
+            history[index] = null;
+        }
+
+        int released = history_bytes;
+
+        history_head = 0;
+        history_size = 0;
+        history_bytes = 0;
+
+        return released;
+    }
+
+    /**
+     * Hand the room to another event loop. Must be called from the owning loop.
+     *
+     * @param target New owner
+     */
+    void moveTo(EventLoop target) {
+        owner = target;
+    }
+
+    /**
+     * Make sure the owning loop will drain the mailbox
+     */
+    private void schedule() {
+        if(!SCHEDULED.compareAndSet(this, 0, 1)) return;
+
+        try {
+            owner.execute(this);
+        } catch(RejectedExecutionException ex) {
+            // The loop is shutting down
+            scheduled = 0;
+        }
+    }
+
+}
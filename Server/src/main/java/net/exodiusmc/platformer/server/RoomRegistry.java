@@ -0,0 +1,553 @@
+package net.exodiusmc.platformer.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import net.exodiusmc.platformer.shared.nio.Packet;
+import net.exodiusmc.platformer.shared.nio.PacketConnection;
+import net.exodiusmc.platformer.shared.nio.RespondablePacket;
+import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
+import net.exodiusmc.platformer.shared.nio.pipeline.OutboundPacketEncoder;
+import net.exodiusmc.platformer.shared.nio.server.NetworkServer;
+import net.exodiusmc.platformer.shared.nio.server.ServerChannelManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe index of the chat rooms and their members. A room only
+ * exists while it has members, and costs a single object plus its member
+ * array and mailbox. The rooms a connection joined are kept in a channel
+ * attribute, so they can be left when the connection closes.
+ * <br>
+ * Every room is owned by one of the worker loops, initially the loop of
+ * the connection that created it. Joins, leaves and publishes are posted
+ * to the room and handled by its owner, so connections on different loops
+ * never contend on the same room. Publishing encodes the packet once on the
+ * calling thread, the owner hands every loop its members live on a single
+ * task. The cost of a publish depends on the size of the room, not on the
+ * amount of connections.
+ * <br>
+ * {@link #rebalance()} moves the busiest rooms away from overloaded loops.
+ * <br>
+ * Rooms keep the frames published to them as history, which is sent to
+ * connections joining the room. When the history of all rooms together
+ * exceeds the history budget, the rooms that published the longest ago
+ * lose their history first.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class RoomRegistry {
+
+    public static final int MAX_NAME_LENGTH = 32;
+    public static final int MAX_ROOMS_PER_CONNECTION = 64;
+    public static final int DEFAULT_HISTORY_SIZE = 50;
+    public static final int DEFAULT_HISTORY_BYTES = 64 * 1024;
+
+    // Loops more than this factor above the average load shed rooms
+    private static final double REBALANCE_THRESHOLD = 1.25;
+
+    // Channel attribute holding the names of the rooms a connection joined
+    private static final AttributeKey<String[]> JOINED = AttributeKey.valueOf("transfer.rooms");
+    private static final String[] NONE = new String[0];
+
+    private final ConcurrentMap<String, Room> rooms = new ConcurrentHashMap<>();
+    private final ServerChannelManager manager;
+    private final EventLoopGroup loops;
+    private final int history_size;
+    private final int history_bytes;
+    private final long history_budget;
+    private final AtomicLong history_total = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * Create a new RoomRegistry for a started NetworkServer, keeping
+     * the default amount of history without a global budget
+     *
+     * @param server NetworkServer
+     */
+    public RoomRegistry(NetworkServer server) {
+        this(server, DEFAULT_HISTORY_SIZE, DEFAULT_HISTORY_BYTES, 0);
+    }
+
+    /**
+     * Create a new RoomRegistry for a started NetworkServer
+     *
+     * @param server NetworkServer
+     * @param history_size Amount of frames kept per room, 0 disables history
+     * @param history_bytes Max amount of bytes kept per room
+     * @param history_budget Max amount of bytes kept by all rooms together, 0 for no limit
+     */
+    public RoomRegistry(NetworkServer server, int history_size, int history_bytes, long history_budget) {
+        // Validate - check the history limits
+        if(history_size < 0 || history_bytes < 0 || history_budget < 0) {
+            throw new NioValidationException("History limits can not be negative");
+        }
+
+        this.manager = server.channelManager();
+        this.loops = server.workerGroup();
+        this.history_size = history_size;
+        this.history_bytes = history_bytes;
+        this.history_budget = history_budget;
+    }
+
+    /**
+     * Join a room, creating it when it does not exist yet
+     *
+     * @param conn PacketConnection
+     * @param name Room name
+     * @return false when the name is invalid, the connection is already a member or joined too many rooms
+     */
+    public boolean join(PacketConnection conn, String name) {
+        // Validate - check the room name
+        if(name == null || name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            return false;
+        }
+
+        Attribute<String[]> attr = conn.channel().attr(JOINED);
+
+        synchronized(attr) {
+            String[] joined = joined(attr);
+
+            if(indexOf(joined, name) >= 0 || joined.length >= MAX_ROOMS_PER_CONNECTION) {
+                return false;
+            }
+
+            String[] grown = Arrays.copyOf(joined, joined.length + 1);
+
+            grown[joined.length] = name;
+            attr.set(grown);
+        }
+
+        enter(conn, name);
+
+        return true;
+    }
+
+    /**
+     * Leave a room
+     *
+     * @param conn PacketConnection
+     * @param name Room name
+     * @return false when the connection was not a member
+     */
+    public boolean leave(PacketConnection conn, String name) {
+        Attribute<String[]> attr = conn.channel().attr(JOINED);
+
+        synchronized(attr) {
+            String[] joined = joined(attr);
+            int index = indexOf(joined, name);
+
+            if(index < 0) return false;
+
+            String[] shrunk = joined.length == 1 ? NONE : new String[joined.length - 1];
+
+            System.arraycopy(joined, 0, shrunk, 0, index);
+            System.arraycopy(joined, index + 1, shrunk, index, shrunk.length - index);
+
+            attr.set(shrunk);
+        }
+
+        exit(conn, name);
+
+        return true;
+    }
+
+    /**
+     * Leave all rooms, used when a connection closes
+     *
+     * @param conn PacketConnection
+     */
+    public void leaveAll(PacketConnection conn) {
+        Attribute<String[]> attr = conn.channel().attr(JOINED);
+        String[] joined;
+
+        synchronized(attr) {
+            joined = joined(attr);
+            attr.set(NONE);
+        }
+
+        for(String name : joined) {
+            exit(conn, name);
+        }
+    }
+
+    /**
+     * Returns true when the connection is a member of the room
+     *
+     * @param conn PacketConnection
+     * @param name Room name
+     * @return boolean
+     */
+    public boolean isMember(PacketConnection conn, String name) {
+        Attribute<String[]> attr = conn.channel().attr(JOINED);
+
+        synchronized(attr) {
+            return indexOf(joined(attr), name) >= 0;
+        }
+    }
+
+    /**
+     * Publish a packet to all members of a room. The packet is encoded only
+     * once, and the encoded frame is shared between the members. Members
+     * that are closed are skipped.
+     *
+     * @param name Room name
+     * @param packet Packet to publish
+     * @param except Member that does not receive the packet, may be null
+     * @return false when the room does not exist
+     */
+    public boolean publish(String name, Packet packet, PacketConnection except) {
+        // Validate - requests need their own response id per connection
+        if(packet instanceof RespondablePacket && !((RespondablePacket) packet).isResponse()) {
+            throw new NioNetworkException("Cannot publish request " + packet.getClass().getSimpleName() + " to a room");
+        }
+
+        Room room = rooms.get(name);
+
+        if(room == null) return false;
+
+        ByteBuf frame = OutboundPacketEncoder.encodeFrame(manager, null, ByteBufAllocator.DEFAULT, packet);
+
+        if(frame == null) return false;
+
+        room.post(() -> {
+            try {
+                fanOut(room, frame, except);
+                keep(room, frame);
+            } finally {
+                frame.release();
+            }
+        });
+
+        return true;
+    }
+
+    /**
+     * Move the busiest rooms away from loops that carry more than their share
+     * of the load, measured as the frames published since the last rebalance.
+     * Rooms are moved one by one to the least loaded loop, as long as that
+     * lowers the load of the busiest loop.
+     *
+     * @return Amount of rooms moved
+     */
+    public synchronized int rebalance() {
+        Map<EventLoop, Long> load = new HashMap<>();
+        List<Room> active = new ArrayList<>();
+        long total = 0;
+
+        for(EventExecutor executor : loops) {
+            load.put((EventLoop) executor, 0L);
+        }
+
+        // Sample the load of every room since the previous rebalance
+        for(Room room : rooms.values()) {
+            long sample = room.load();
+            long delta = sample - room.sampled_load;
+
+            room.sampled_load = sample;
+
+            if(delta <= 0) continue;
+
+            // Remember the delta for sorting
+            room.sampled_delta = delta;
+            active.add(room);
+
+            load.merge(room.owner(), delta, Long::sum);
+            total += delta;
+        }
+
+        if(active.isEmpty() || load.size() < 2) return 0;
+
+        double limit = (double) total / load.size() * REBALANCE_THRESHOLD;
+        int moved = 0;
+
+        active.sort((a, b) -> Long.compare(b.sampled_delta, a.sampled_delta));
+
+        for(Room room : active) {
+            EventLoop from = room.owner();
+            EventLoop to = Collections.min(load.entrySet(), Map.Entry.comparingByValue()).getKey();
+            long delta = room.sampled_delta;
+
+            if(load.get(from) <= limit || load.get(to) + delta >= load.get(from)) continue;
+
+            load.merge(from, -delta, Long::sum);
+            load.merge(to, delta, Long::sum);
+
+            room.post(() -> room.moveTo(to));
+            moved++;
+        }
+
+        return moved;
+    }
+
+    /**
+     * Returns the amount of members of a room
+     *
+     * @param name Room name
+     * @return int
+     */
+    public int members(String name) {
+        Room room = rooms.get(name);
+
+        return room == null ? 0 : room.members().length;
+    }
+
+    /**
+     * Returns the amount of rooms that have members
+     *
+     * @return int
+     */
+    public int size() {
+        return rooms.size();
+    }
+
+    /**
+     * Returns the amount of bytes kept as history by all rooms together
+     *
+     * @return long
+     */
+    public long historyBytes() {
+        return history_total.get();
+    }
+
+    /**
+     * Add a member to its room. When the room closed before the member
+     * could be added, the member is added to a new room instead.
+     *
+     * @param conn PacketConnection
+     * @param name Room name
+     */
+    private void enter(PacketConnection conn, String name) {
+        Room room = rooms.computeIfAbsent(name, key -> new Room(key, conn.channel().eventLoop(), history_size));
+
+        room.post(() -> {
+            // Left again while the message was on its way, don't
+            // keep the room around when it was created for nothing
+            if(!isMember(conn, name)) {
+                if(room.closeIfEmpty()) forget(room);
+                return;
+            }
+
+            if(!room.add(conn)) {
+                rooms.remove(name, room);
+                enter(conn, name);
+                return;
+            }
+
+            backfill(conn, room.history());
+        });
+    }
+
+    /**
+     * Send the history of a room to a member that just joined. Frames
+     * published after joining are handed to the loop of the member
+     * later, so they always follow the history.
+     *
+     * @param conn PacketConnection
+     * @param frames History frames
+     */
+    private void backfill(PacketConnection conn, List<ByteBuf> frames) {
+        if(frames.isEmpty()) return;
+
+        EventLoop loop = conn.channel().eventLoop();
+
+        if(loop.inEventLoop()) {
+            conn.sendFrames(frames);
+            return;
+        }
+
+        try {
+            loop.execute(() -> conn.sendFrames(frames));
+        } catch(RejectedExecutionException ex) {
+            // The loop is shutting down
+            frames.forEach(ByteBuf::release);
+        }
+    }
+
+    /**
+     * Remove a member from its room, forgetting the room when it closed
+     *
+     * @param conn PacketConnection
+     * @param name Room name
+     */
+    private void exit(PacketConnection conn, String name) {
+        Room room = rooms.get(name);
+
+        if(room == null) return;
+
+        room.post(() -> {
+            if(room.remove(conn)) forget(room);
+        });
+    }
+
+    /**
+     * Forget a closed room and release its history. Must be called
+     * from the owning loop of the room.
+     *
+     * @param room Closed room
+     */
+    private void forget(Room room) {
+        rooms.remove(room.name(), room);
+        history_total.addAndGet(-room.clearHistory());
+    }
+
+    /**
+     * Hand a frame to the members of a room, every loop gets its own
+     * slice of members. Must be called from the owning loop of the room.
+     *
+     * @param room Room
+     * @param frame Encoded frame
+     * @param except Member that is skipped, may be null
+     */
+    private void fanOut(Room room, ByteBuf frame, PacketConnection except) {
+        PacketConnection[] members = room.members();
+        int start = 0;
+
+        // Members are grouped by loop
+        while(start < members.length) {
+            EventLoop loop = members[start].channel().eventLoop();
+            int end = start + 1;
+
+            while(end < members.length && members[end].channel().eventLoop() == loop) {
+                end++;
+            }
+
+            submit(loop, members, start, end, frame, except);
+            start = end;
+        }
+
+        room.addLoad(members.length);
+    }
+
+    /**
+     * Keep a published frame as history of a room, evicting the history of
+     * cold rooms when over budget. Must be called from the owning loop.
+     *
+     * @param room Room
+     * @param frame Encoded frame
+     */
+    private void keep(Room room, ByteBuf frame) {
+        long total = history_total.addAndGet(room.record(frame, history_bytes));
+
+        if(history_budget > 0 && total > history_budget) evictCold();
+    }
+
+    /**
+     * Clear the history of the rooms that published the longest ago, until
+     * the history is back at 90% of the budget. Only one thread evicts at a
+     * time, the history of a room is cleared by its owning loop.
+     */
+    private void evictCold() {
+        if(!evicting.compareAndSet(false, true)) return;
+
+        try {
+            long excess = history_total.get() - history_budget / 10 * 9;
+            List<Room> candidates = new ArrayList<>();
+
+            for(Room room : rooms.values()) {
+                if(room.historyBytes() > 0) candidates.add(room);
+            }
+
+            candidates.sort(Comparator.comparingLong(Room::lastPublish));
+
+            for(Room room : candidates) {
+                if(excess <= 0) break;
+
+                excess -= room.historyBytes();
+
+                room.post(() -> history_total.addAndGet(-room.clearHistory()));
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Write a frame to a slice of members living on the given loop
+     *
+     * @param loop EventLoop of the members
+     * @param members Member array
+     * @param start First member, inclusive
+     * @param end Last member, exclusive
+     * @param frame Encoded frame
+     * @param except Member that is skipped, may be null
+     */
+    private void submit(EventLoop loop, PacketConnection[] members, int start, int end, ByteBuf frame, PacketConnection except) {
+        // Write directly when we're already on the loop
+        if(loop.inEventLoop()) {
+            writeFrame(members, start, end, frame, except);
+            return;
+        }
+
+        // Every task holds its own reference to the frame
+        frame.retain();
+
+        try {
+            loop.execute(() -> {
+                try {
+                    writeFrame(members, start, end, frame, except);
+                } finally {
+                    frame.release();
+                }
+            });
+        } catch(RejectedExecutionException ex) {
+            // The loop is shutting down
+            frame.release();
+        }
+    }
+
+    /**
+     * Write a frame to a slice of members. Must be called from their event loop.
+     *
+     * @param members Member array
+     * @param start First member, inclusive
+     * @param end Last member, exclusive
+     * @param frame Encoded frame
+     * @param except Member that is skipped, may be null
+     */
+    private void writeFrame(PacketConnection[] members, int start, int end, ByteBuf frame, PacketConnection except) {
+        for(int i = start; i < end; i++) {
+            if(members[i] != except) members[i].sendFrame(frame.retainedDuplicate());
+        }
+    }
+
+    /**
+     * Returns the rooms joined, must be called while holding the attribute lock
+     *
+     * @param attr Attribute
+     * @return Room names
+     */
+    private static String[] joined(Attribute<String[]> attr) {
+        String[] joined = attr.get();
+
+        return joined == null ? NONE : joined;
+    }
+
+    /**
+     * Returns the index of a room name
+     *
+     * @param joined Rooms joined
+     * @param name Room name
+     * @return Index, or -1 when not found
+     */
+    private static int indexOf(String[] joined, String name) {
+        for(int i = 0; i < joined.length; i++) {
+            if(joined[i].equals(name)) return i;
+        }
+
+        return -1;
+    }
+
+}
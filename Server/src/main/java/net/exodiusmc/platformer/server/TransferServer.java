@@ -1,5 +1,22 @@
 package net.exodiusmc.platformer.server;
 
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.exodiusmc.platformer.shared.SharedUtil;
+import net.exodiusmc.platformer.shared.Snowflake;
+import net.exodiusmc.platformer.shared.TransferPackets;
+import net.exodiusmc.platformer.shared.nio.HookType;
+import net.exodiusmc.platformer.shared.nio.PacketConnection;
+import net.exodiusmc.platformer.shared.nio.server.NetworkServer;
+import net.exodiusmc.platformer.shared.nio.server.ServerChannelManager;
+import net.exodiusmc.platformer.shared.packets.ChatReceivePacket;
+import net.exodiusmc.platformer.shared.packets.ChatSendPacket;
+import net.exodiusmc.platformer.shared.packets.RoomJoinPacket;
+import net.exodiusmc.platformer.shared.packets.RoomLeavePacket;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Julian Mills
  * @version 1.0.0
@@ -7,6 +24,107 @@ package net.exodiusmc.platformer.server;
  */
 public class TransferServer {
 
+    public static final int REBALANCE_INTERVAL = 10;
+    public static final long HISTORY_BUDGET = 64 * 1024 * 1024;
+
+    private NetworkServer server;
+    private RoomRegistry rooms;
+    private ScheduledExecutorService rebalancer;
+    private Snowflake message_ids = Snowflake.getDefault();
+
+    /**
+     * Start the NetworkServer and listen for chat and room packets
+     *
+     * @param port Port to bind to
+     */
+    public void start(int port) {
+        server = NetworkServer.setup(port)
+
+                .useLogger(SharedUtil.logger())
+                .packets(TransferPackets.list())
+
+                .buildAndStart();
+
+        ServerChannelManager manager = server.channelManager();
+
+        rooms = new RoomRegistry(server, RoomRegistry.DEFAULT_HISTORY_SIZE,
+            RoomRegistry.DEFAULT_HISTORY_BYTES, HISTORY_BUDGET);
+
+        // Room membership
+        manager.subscribe(RoomJoinPacket.class, (packet, conn) ->
+            rooms.join(conn, ((RoomJoinPacket) packet).getRoom()));
+
+        manager.subscribe(RoomLeavePacket.class, (packet, conn) ->
+            rooms.leave(conn, ((RoomLeavePacket) packet).getRoom()));
+
+        manager.registerHook(HookType.DISCONNECTED, rooms::leaveAll);
+
+        // Chat
+        manager.subscribeRespondable(ChatSendPacket.class, (packet, conn) ->
+            chat((ChatSendPacket) packet, conn));
+
+        // Move busy rooms away from overloaded loops. This walks every room,
+        // so it runs on a thread of its own instead of stalling an I/O loop
+        rebalancer = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("transfer-rebalance", true));
+        rebalancer.scheduleAtFixedRate(rooms::rebalance, REBALANCE_INTERVAL, REBALANCE_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the NetworkServer
+     */
+    public void stop() {
+        if(server != null) {
+            rebalancer.shutdown();
+            server.stop();
+            server = null;
+        }
+    }
+
+    /**
+     * Deliver a chat message to the other members of its room, and
+     * acknowledge it with the assigned message id. Messages sent to a
+     * room the sender is not a member of are acknowledged with id 0.
+     *
+     * @param packet ChatSendPacket
+     * @param sender Connection the message was received from
+     */
+    private void chat(ChatSendPacket packet, PacketConnection sender) {
+        String room = packet.getRoom();
+
+        if(!rooms.isMember(sender, room)) {
+            packet.acknowledge(0);
+            return;
+        }
+
+        long mid = message_ids.next();
+
+        rooms.publish(room, new ChatReceivePacket(room, sender.getName(), packet.getMessage(), mid), sender);
+
+        packet.acknowledge(mid);
+    }
+
+    /**
+     * Returns the NetworkServer
+     *
+     * @return NetworkServer
+     */
+    public NetworkServer getNetServer() {
+        return server;
+    }
+
+    /**
+     * Returns the chat rooms
+     *
+     * @return RoomRegistry
+     */
+    public RoomRegistry getRooms() {
+        return rooms;
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : NetworkServer.DEFAULT_NETTY_PORT;
 
+        new TransferServer().start(port);
+    }
 
 }
@@ -0,0 +1,210 @@
+package net.exodiusmc.platformer.server;
+
+import net.exodiusmc.platformer.shared.SharedUtil;
+import net.exodiusmc.platformer.shared.TransferPackets;
+import net.exodiusmc.platformer.shared.nio.PacketConnection;
+import net.exodiusmc.platformer.shared.nio.SharedEventLoopGroup;
+import net.exodiusmc.platformer.shared.nio.Transport;
+import net.exodiusmc.platformer.shared.nio.client.NetworkClient;
+import net.exodiusmc.platformer.shared.packets.ChatReceivePacket;
+import net.exodiusmc.platformer.shared.packets.RoomJoinPacket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Load test for the {@link RoomRegistry}, showing the cost of a publish
+ * depends on the size of the room, not on the amount of connections or rooms.
+ * <br>
+ * A TransferServer is started on the given port and clients are connected in
+ * stages. Every client joins a room of its own, every tenth client shares a
+ * room with nine others, and all clients join one big room. After every stage
+ * the three kinds of rooms are published to, and the time until every member
+ * received every message is reported. The 1 and 10 member rooms should stay
+ * flat while the connections grow, only the room holding everyone grows.
+ * <br>
+ * Usage: <i>RoomLoadBenchmark [connections] [port]</i>
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class RoomLoadBenchmark {
+
+    public static final int DEFAULT_CONNECTIONS = 2000;
+    public static final int STAGES = 4;
+    public static final int SMALL_ROOM = 10;
+    public static final int PUBLISHES = 20000;
+    public static final int BIG_PUBLISHES = 200;
+    public static final long DELIVERY_TIMEOUT = 30000;
+
+    private final List<NetworkClient> clients = new ArrayList<>();
+    private final AtomicLong received = new AtomicLong();
+    private final SharedEventLoopGroup group;
+    private final Logger logger;
+    private final int port;
+
+    private TransferServer server;
+    private RoomRegistry rooms;
+
+    /**
+     * Create a new RoomLoadBenchmark
+     *
+     * @param port Port to run the TransferServer on
+     */
+    public RoomLoadBenchmark(int port) {
+        this.port = port;
+        this.group = SharedEventLoopGroup.create(Transport.AUTO, 4, "room-load-client");
+
+        // Thousands of connecting clients would flood the log
+        this.logger = Logger.getLogger("RoomLoadBenchmark");
+        this.logger.setLevel(Level.WARNING);
+    }
+
+    /**
+     * Run the load test
+     *
+     * @param connections Amount of connections at the last stage
+     * @throws InterruptedException When interrupted while waiting for deliveries
+     */
+    public void run(int connections) throws InterruptedException {
+        SharedUtil.logger().setLevel(Level.WARNING);
+
+        server = new TransferServer();
+        server.start(port);
+        rooms = server.getRooms();
+
+        System.out.println("connections      rooms   1-member us/publish   " + SMALL_ROOM
+            + "-member us/publish   all-member us/publish   all-member ns/delivery");
+
+        try {
+            for(int stage = 1; stage <= STAGES; stage++) {
+                connect(connections * stage / STAGES);
+
+                measure();
+            }
+        } finally {
+            clients.forEach(NetworkClient::stop);
+            server.stop();
+            group.release();
+        }
+    }
+
+    /**
+     * Connect clients until the given amount is connected and joined their rooms
+     *
+     * @param target Amount of connections
+     * @throws InterruptedException When interrupted while waiting
+     */
+    private void connect(int target) throws InterruptedException {
+        int first = clients.size();
+
+        for(int i = first; i < target; i++) {
+            NetworkClient client = NetworkClient.setup("127.0.0.1", port, "load-" + i)
+                .authenticate(new char[0])
+                .useLogger(logger)
+                .packets(TransferPackets.list())
+                .eventLoopGroup(group)
+                .build();
+
+            client.start();
+            clients.add(client);
+        }
+
+        for(int i = first; i < target; i++) {
+            NetworkClient client = clients.get(i);
+
+            while(!authenticated(client)) Thread.sleep(1);
+
+            client.channelManager().subscribe(ChatReceivePacket.class, (packet, conn) -> received.incrementAndGet());
+
+            client.sendPacket(new RoomJoinPacket("solo-" + i));
+            client.sendPacket(new RoomJoinPacket("small-" + i / SMALL_ROOM));
+            client.sendPacket(new RoomJoinPacket("all"));
+        }
+
+        while(rooms.members("all") < target) Thread.sleep(5);
+    }
+
+    /**
+     * Publish to every kind of room and print the results of this stage
+     *
+     * @throws InterruptedException When interrupted while waiting for deliveries
+     */
+    private void measure() throws InterruptedException {
+        int connections = clients.size();
+        int small_rooms = connections / SMALL_ROOM;
+
+        // Warm up, which also absorbs the history sent to new members, then measure
+        long solo = 0, small = 0, all = 0;
+
+        for(int round = 0; round < 2; round++) {
+            solo = publish(PUBLISHES, 1, i -> "solo-" + i % connections);
+            small = publish(PUBLISHES, SMALL_ROOM, i -> "small-" + i % small_rooms);
+            all = publish(BIG_PUBLISHES, connections, i -> "all");
+        }
+
+        System.out.printf("%11d %10d %21.2f %22.2f %23.2f %24.1f%n", connections, rooms.size(),
+            solo / 1000.0 / PUBLISHES, small / 1000.0 / PUBLISHES,
+            all / 1000.0 / BIG_PUBLISHES, (double) all / BIG_PUBLISHES / connections);
+    }
+
+    /**
+     * Publish messages and wait until every member received them
+     *
+     * @param count Amount of publishes
+     * @param members Members of every room published to
+     * @param room Room name of the n-th publish
+     * @return Nanoseconds until everything was delivered
+     * @throws InterruptedException When interrupted while waiting
+     */
+    private long publish(int count, int members, IntFunction<String> room) throws InterruptedException {
+        ChatReceivePacket packet = new ChatReceivePacket("load", "server", "The quick brown fox jumps over the lazy dog", 0);
+        long deliveries = (long) count * members;
+        long expected = received.get() + deliveries;
+        long start = System.nanoTime();
+
+        for(int i = 0; i < count; i++) {
+            rooms.publish(room.apply(i), packet, null);
+        }
+
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT;
+
+        while(received.get() < expected) {
+            if(System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Only " + (deliveries - (expected - received.get()))
+                    + " of " + deliveries + " messages were delivered");
+            }
+
+            Thread.yield();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns true when the client is authenticated
+     *
+     * @param client NetworkClient
+     * @return boolean
+     */
+    private static boolean authenticated(NetworkClient client) {
+        PacketConnection conn = client.channelManager().connection();
+
+        return conn != null && conn.isAuthenticated();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONNECTIONS;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 25570;
+
+        new RoomLoadBenchmark(port).run(connections);
+
+        System.exit(0);
+    }
+
+}
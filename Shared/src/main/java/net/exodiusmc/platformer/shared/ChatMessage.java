@@ -1,7 +1,5 @@
 package net.exodiusmc.platformer.shared;
 
-import java.util.Random;
-
 /**
  * Represents a generic chat message
  *
@@ -11,30 +9,41 @@ import java.util.Random;
  */
 public abstract class ChatMessage {
 
-    private int id;
+    private long id;
 
     /**
      * Create a new ChatMessage
      *
      * @param id Unique identifier
      */
-    public ChatMessage(int id) {
+    public ChatMessage(long id) {
         this.id = id;
     }
 
     /**
      * Returns the ChatMessage id for this message
      *
-     * @return int
+     * @return long
      */
-    public int getId() {
+    public long getId() {
         return id;
     }
 
     /**
-     * Create a new ChatMessage with a unique random identifier
+     * Returns the time the message id was generated at
+     *
+     * @return Unix time in milliseconds
+     */
+    public long getTimestamp() {
+        return Snowflake.timestamp(id);
+    }
+
+    /**
+     * Create a new ChatMessage with a unique, time ordered identifier
+     *
+     * @see Snowflake
      */
     public ChatMessage() {
-        this.id = new Random().nextInt();
+        this.id = Snowflake.getDefault().next();
     }
 }
@@ -0,0 +1,126 @@
+package net.exodiusmc.platformer.shared;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique, time ordered 64-bit ids without locking. An id
+ * consists of, from the most significant bit down:
+ * <ul>
+ *     <li>41 bits: milliseconds since {@link #EPOCH}</li>
+ *     <li>10 bits: node id</li>
+ *     <li>12 bits: sequence within the millisecond</li>
+ * </ul>
+ * Ids generated by one node are strictly increasing, ids of different
+ * nodes sort by time. This makes them usable as history cursors and
+ * storage keys. When the sequence of a millisecond runs out, or the clock
+ * moves backwards, ids continue from the last id instead of waiting.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class Snowflake {
+
+    // 01-01-2017 00:00:00 UTC
+    public static final long EPOCH = 1483228800000L;
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final Snowflake DEFAULT = new Snowflake(Integer.getInteger("transfer.node", 0));
+
+    private final long node;
+
+    // Time and sequence of the last id, packed like the id without the node
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Create a new Snowflake generator
+     *
+     * @param node Node id, unique for every generator running at the same time
+     */
+    public Snowflake(int node) {
+        // Validate - check the node id
+        if(node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE + ", got " + node);
+        }
+
+        this.node = node;
+    }
+
+    /**
+     * Generate a new id
+     *
+     * @return long
+     */
+    public long next() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+
+        while(true) {
+            long previous = last.get();
+
+            // A new millisecond starts at sequence 0, otherwise count on
+            long current = now > previous ? now : previous + 1;
+
+            if(last.compareAndSet(previous, current)) {
+                return (current >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                    | node << SEQUENCE_BITS
+                    | current & SEQUENCE_MASK;
+            }
+        }
+    }
+
+    /**
+     * Returns the node id of this generator
+     *
+     * @return int
+     */
+    public int getNode() {
+        return (int) node;
+    }
+
+    /**
+     * Returns the generator of this process. Its node id is read from
+     * the <i>transfer.node</i> system property, and defaults to 0.
+     *
+     * @return Snowflake
+     */
+    public static Snowflake getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the time an id was generated at
+     *
+     * @param id Id
+     * @return Unix time in milliseconds
+     */
+    public static long timestamp(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    /**
+     * Returns the node that generated an id
+     *
+     * @param id Id
+     * @return int
+     */
+    public static int node(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE;
+    }
+
+    /**
+     * Returns the lowest possible id generated at the given time,
+     * useful as a cursor to find ids from that time on
+     *
+     * @param timestamp Unix time in milliseconds
+     * @return long
+     */
+    public static long firstAt(long timestamp) {
+        return (timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+}
@@ -1,7 +1,10 @@
 package net.exodiusmc.platformer.shared;
 
 import net.exodiusmc.platformer.shared.nio.PacketInfo;
+import net.exodiusmc.platformer.shared.packets.ChatReceivePacket;
 import net.exodiusmc.platformer.shared.packets.ChatSendPacket;
+import net.exodiusmc.platformer.shared.packets.RoomJoinPacket;
+import net.exodiusmc.platformer.shared.packets.RoomLeavePacket;
 
 /**
  * @author Macjuul
@@ -22,7 +25,10 @@ public class TransferPackets {
         int i = 0;
 
         return new PacketInfo[] {
-            new PacketInfo(++i, ChatSendPacket.class)
+            new PacketInfo(++i, ChatSendPacket.class),
+            new PacketInfo(++i, ChatReceivePacket.class),
+            new PacketInfo(++i, RoomJoinPacket.class),
+            new PacketInfo(++i, RoomLeavePacket.class)
         };
     }
 }
@@ -1,18 +1,25 @@
 package net.exodiusmc.platformer.shared.nio;
 
-import com.google.common.collect.BiMap;
 import com.google.common.collect.ListMultimap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.exodiusmc.platformer.shared.nio.pipeline.HeartbeatHandler;
 import net.exodiusmc.platformer.shared.nio.pipeline.InboundPacketDecoder;
 import net.exodiusmc.platformer.shared.nio.pipeline.InboundTriggerHandler;
+import net.exodiusmc.platformer.shared.nio.pipeline.OutboundFlushHandler;
 import net.exodiusmc.platformer.shared.nio.pipeline.OutboundPacketEncoder;
 
-import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 
@@ -27,19 +34,25 @@ import java.util.logging.Level;
 public abstract class ChannelManager extends ChannelInitializer<SocketChannel> {
 
 	private NetworkInstance parent;
-	private BiMap<Byte, Class<? extends Packet>> packets;
-	private ListMultimap<HookType, Consumer<PacketConnection>> hooks;
+	private PacketRegistry packets;
+	private ConnectionSettings settings;
+	private LongAdder expired_responses = new LongAdder();
+	private HookTable hooks;
+	private ExecutorService default_executor;
 
 	/**
 	 * Create a new ChannelManager for the given NetworkInstance
 	 *
 	 * @param parent NetworkInstance
-	 * @param hooks Hook Multimap
+	 * @param hooks Hooks registered during building
+	 * @param packets Frozen packet registry
+	 * @param settings Connection settings
 	 */
-	public ChannelManager(NetworkInstance parent, ListMultimap<HookType, Consumer<PacketConnection>> hooks, BiMap<Byte, Class<? extends Packet>> packets) {
+	public ChannelManager(NetworkInstance parent, ListMultimap<HookType, Consumer<PacketConnection>> hooks, PacketRegistry packets, ConnectionSettings settings) {
 		this.parent = parent;
-		this.hooks = hooks;
+		this.hooks = new HookTable(hooks);
 		this.packets = packets;
+		this.settings = settings;
 	}
 
 	@Override
@@ -70,14 +83,26 @@ public abstract class ChannelManager extends ChannelInitializer<SocketChannel> {
 	private void setupPipeline(SocketChannel channel) {
 		ChannelPipeline pipe = channel.pipeline();
 
-		// Decoders
-		pipe.addLast("LengthDecoder", new LengthFieldBasedFrameDecoder(10000, 0, 4, 0, 4));
+		// Flush consolidation has to see every flush,
+		// so it sits in front of all other handlers
+		if(!settings.getFlushPolicy().isImmediate()) {
+			pipe.addLast("FlushConsolidation", new OutboundFlushHandler(settings.getFlushPolicy()));
+		}
+
+		// Decoders, the max frame length includes the length prefix
+		pipe.addLast("LengthDecoder", new LengthFieldBasedFrameDecoder(settings.getMaxFrameLength(), 0, 4, 0, 4));
 		pipe.addLast("InboundPacketDecoder", new InboundPacketDecoder(this));
 
-		// Encoders
-		pipe.addLast("LengthEncoder", new LengthFieldPrepender(4));
+		// Encoder, writes the length prefix itself. Encoded
+		// frames are written past it, see PacketConnection
 		pipe.addLast("OutboundPacketEncoder", new OutboundPacketEncoder(this));
 
+		// Answers pings and disconnects unresponsive peers,
+		// ping and pong packets never reach the listeners
+		if(settings.getHeartbeatInterval() > 0) {
+			pipe.addLast("Heartbeat", new HeartbeatHandler(this, settings));
+		}
+
 		// The InboundTrigger channel handler will be called
 		// with a finished Packet object. The channel will
 		// tigger all subscribed listeners who are listening
@@ -93,10 +118,10 @@ public abstract class ChannelManager extends ChannelInitializer<SocketChannel> {
 	 * @return true when at least one hook was triggered
 	 */
 	public boolean callHook(HookType type, PacketConnection connection) {
-		List<Consumer<PacketConnection>> triggers = hooks.get(type);
+		Consumer<PacketConnection>[] triggers = hooks.get(type);
 
 		// Return if none are hooked
-		if(triggers == null || triggers.size() == 0) return false;
+		if(triggers.length == 0) return false;
 
 		for(Consumer<PacketConnection> conn : triggers) {
 			try {
@@ -117,7 +142,7 @@ public abstract class ChannelManager extends ChannelInitializer<SocketChannel> {
 	 * @return the handler
 	 */
 	public Consumer<PacketConnection> registerHook(HookType type, Consumer<PacketConnection> handler) {
-		this.hooks.put(type, handler);
+		this.hooks.add(type, handler);
 		return handler;
 	}
 
@@ -132,14 +157,92 @@ public abstract class ChannelManager extends ChannelInitializer<SocketChannel> {
 	}
 
 	/**
-	 * Returns a BiMap of packets
+	 * Call an offloaded listener on the handler executor of the connection.
+	 * Must be called from the event loop of the connection.
+	 *
+	 * @param connection Connection the packet was received from
+	 * @param packet Packet being handled
+	 * @param call Listener call
+	 */
+	protected void offload(PacketConnection connection, Packet packet, Runnable call) {
+		// The packet outlives the read, so keep it out of the pool
+		packet.detach();
+
+		connection.handlerExecutor().execute(call);
+	}
+
+	/**
+	 * Returns the executor running offloaded listeners
+	 *
+	 * @return Executor
+	 */
+	synchronized Executor handlerExecutor() {
+		if(settings.getHandlerExecutor() != null) {
+			return settings.getHandlerExecutor();
+		}
+
+		if(default_executor == null) {
+			int threads = Runtime.getRuntime().availableProcessors();
+
+			// A thread per core, every connection queues at most a single drain
+			// so the queue is bounded by the amount of connections
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), new DefaultThreadFactory("transfer-handlers", true));
+
+			pool.allowCoreThreadTimeOut(true);
+
+			default_executor = pool;
+		}
+
+		return default_executor;
+	}
+
+	/**
+	 * Release the resources held by this ChannelManager.
+	 * Called when the NetworkInstance shuts down.
+	 */
+	public synchronized void shutdown() {
+		if(default_executor != null) {
+			default_executor.shutdown();
+			default_executor = null;
+		}
+	}
+
+	/**
+	 * Returns the registry of known packets
 	 *
-	 * @return Packets
+	 * @return PacketRegistry
 	 */
-	public BiMap<Byte, Class<? extends Packet>> getPackets() {
+	public PacketRegistry getPackets() {
 		return packets;
 	}
 
+	/**
+	 * Returns the amount of requests that expired before
+	 * their response arrived
+	 *
+	 * @return long
+	 */
+	public long getExpiredResponses() {
+		return expired_responses.sum();
+	}
+
+	/**
+	 * Count a request that expired before its response arrived
+	 */
+	void responseExpired() {
+		expired_responses.increment();
+	}
+
+	/**
+	 * Returns the settings applied to every connection
+	 *
+	 * @return ConnectionSettings
+	 */
+	public ConnectionSettings getSettings() {
+		return settings;
+	}
+
 	/**
 	 * Returns the parenting NetworkInstance
 	 *
@@ -149,6 +252,17 @@ public abstract class ChannelManager extends ChannelInitializer<SocketChannel> {
 		return parent;
 	}
 
+	/**
+	 * Returns the PacketConnection wrapping the given channel. The connection
+	 * is stored on the channel itself, so this lookup takes constant time.
+	 *
+	 * @param channel Channel
+	 * @return PacketConnection, or null when unknown
+	 */
+	public PacketConnection connection(Channel channel) {
+		return channel.attr(PacketConnection.ATTRIBUTE).get();
+	}
+
 	/**
 	 * Lifecycle method: called when a new channel is setup
 	 *
@@ -0,0 +1,222 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-connection settings shared by the NetworkServer and NetworkClient
+ * builders. Settings are configured through the builder, and should not
+ * be changed once the NetworkInstance has been built.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class ConnectionSettings {
+
+	/**
+	 * Default max frame length, 2 MB. Leaves plenty of room
+	 * for VarInt-prefixed strings well over 32 KB.
+	 */
+	public static final int DEFAULT_MAX_FRAME_LENGTH = 2 * 1024 * 1024;
+
+	private int max_frame_length = DEFAULT_MAX_FRAME_LENGTH;
+	private FlushPolicy flush_policy = FlushPolicy.IMMEDIATE;
+	private int pending_limit = 1024;
+	private OverflowPolicy overflow_policy = OverflowPolicy.DISCONNECT;
+	private long response_timeout = TimeUnit.SECONDS.toMillis(30);
+	private int max_in_flight = 1024;
+	private Executor handler_executor;
+	private long heartbeat_interval = TimeUnit.SECONDS.toMillis(10);
+	private long read_timeout = TimeUnit.SECONDS.toMillis(30);
+	private long write_timeout = TimeUnit.SECONDS.toMillis(30);
+
+	/**
+	 * Returns the max length in bytes of a frame, including its
+	 * length prefix. Larger frames are neither sent nor accepted.
+	 *
+	 * @return int
+	 */
+	public int getMaxFrameLength() {
+		return max_frame_length;
+	}
+
+	/**
+	 * Set the max length in bytes of a frame, including its length prefix
+	 *
+	 * @param max_frame_length Max frame length
+	 */
+	public void setMaxFrameLength(int max_frame_length) {
+		NioValidate.betweenInc(8, Integer.MAX_VALUE, max_frame_length, "Max frame length must be at least 8 bytes");
+
+		this.max_frame_length = max_frame_length;
+	}
+
+	/**
+	 * Returns the policy used to consolidate flushes
+	 *
+	 * @return FlushPolicy
+	 */
+	public FlushPolicy getFlushPolicy() {
+		return flush_policy;
+	}
+
+	/**
+	 * Set the policy used to consolidate flushes
+	 *
+	 * @param flush_policy FlushPolicy
+	 */
+	public void setFlushPolicy(FlushPolicy flush_policy) {
+		NioValidate.isNull(flush_policy, "Flush policy cannot be null");
+
+		this.flush_policy = flush_policy;
+	}
+
+	/**
+	 * Returns the amount of packets a connection may queue
+	 * while its channel is not writable
+	 *
+	 * @return int
+	 */
+	public int getPendingLimit() {
+		return pending_limit;
+	}
+
+	/**
+	 * Returns the policy applied when a pending queue is full
+	 *
+	 * @return OverflowPolicy
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return overflow_policy;
+	}
+
+	/**
+	 * Set the pending queue limit and overflow policy
+	 *
+	 * @param limit Max amount of queued packets per connection
+	 * @param policy Overflow policy
+	 */
+	public void setPendingQueue(int limit, OverflowPolicy policy) {
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, limit, "Pending queue limit must be at least 1");
+		NioValidate.isNull(policy, "Overflow policy cannot be null");
+
+		this.pending_limit = limit;
+		this.overflow_policy = policy;
+	}
+
+	/**
+	 * Returns the time in milliseconds after which an
+	 * unanswered request expires
+	 *
+	 * @return long
+	 */
+	public long getResponseTimeout() {
+		return response_timeout;
+	}
+
+	/**
+	 * Set the time after which an unanswered request expires
+	 *
+	 * @param timeout Timeout
+	 * @param unit Time unit
+	 */
+	public void setResponseTimeout(long timeout, TimeUnit unit) {
+		NioValidate.betweenInc(1, Long.MAX_VALUE, timeout, "Response timeout must be positive");
+
+		this.response_timeout = unit.toMillis(timeout);
+	}
+
+	/**
+	 * Returns the amount of requests a connection
+	 * may await at once
+	 *
+	 * @return int
+	 */
+	public int getMaxInFlight() {
+		return max_in_flight;
+	}
+
+	/**
+	 * Set the amount of requests a connection may await at once
+	 *
+	 * @param limit Max amount of requests in flight
+	 */
+	public void setMaxInFlight(int limit) {
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, limit, "Request limit must be at least 1");
+
+		this.max_in_flight = limit;
+	}
+
+	/**
+	 * Returns the executor running offloaded listeners
+	 *
+	 * @return Executor, or null to use a default pool
+	 */
+	public Executor getHandlerExecutor() {
+		return handler_executor;
+	}
+
+	/**
+	 * Set the executor running offloaded listeners
+	 *
+	 * @param executor Executor
+	 */
+	public void setHandlerExecutor(Executor executor) {
+		NioValidate.isNull(executor, "Handler executor cannot be null");
+
+		this.handler_executor = executor;
+	}
+
+	/**
+	 * Returns the time in milliseconds between pings
+	 *
+	 * @return long, 0 when heartbeats are disabled
+	 */
+	public long getHeartbeatInterval() {
+		return heartbeat_interval;
+	}
+
+	/**
+	 * Returns the time in milliseconds after which a
+	 * connection without inbound traffic is closed
+	 *
+	 * @return long
+	 */
+	public long getReadTimeout() {
+		return read_timeout;
+	}
+
+	/**
+	 * Returns the time in milliseconds after which a connection
+	 * that stays unwritable is closed
+	 *
+	 * @return long
+	 */
+	public long getWriteTimeout() {
+		return write_timeout;
+	}
+
+	/**
+	 * Configure the heartbeat. Timeouts are checked once per interval,
+	 * so they should be a multiple of the interval.
+	 *
+	 * @param interval Time between pings, 0 to disable heartbeats
+	 * @param read_timeout Time without inbound traffic after which the connection is closed
+	 * @param write_timeout Time the connection may stay unwritable before it is closed
+	 * @param unit Time unit
+	 */
+	public void setHeartbeat(long interval, long read_timeout, long write_timeout, TimeUnit unit) {
+		NioValidate.betweenInc(0, Long.MAX_VALUE, interval, "Heartbeat interval cannot be negative");
+
+		if(interval > 0) {
+			NioValidate.betweenInc(interval, Long.MAX_VALUE, read_timeout, "Read timeout must be at least the heartbeat interval");
+			NioValidate.betweenInc(interval, Long.MAX_VALUE, write_timeout, "Write timeout must be at least the heartbeat interval");
+		}
+
+		this.heartbeat_interval = unit.toMillis(interval);
+		this.read_timeout = unit.toMillis(read_timeout);
+		this.write_timeout = unit.toMillis(write_timeout);
+	}
+
+}
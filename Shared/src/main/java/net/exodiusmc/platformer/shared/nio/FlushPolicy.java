@@ -0,0 +1,114 @@
+package net.exodiusmc.platformer.shared.nio;
+
+/**
+ * Describes when packets written to a connection are flushed to the socket.
+ * Consolidating flushes lets a burst of packets leave in a single syscall.
+ * <br>
+ * A flush is performed as soon as the configured amount of packets have
+ * been written. Remaining packets are flushed at the end of the current
+ * read batch (when enabled), after the deadline, or otherwise on the next
+ * run of the event loop.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public final class FlushPolicy {
+
+	/**
+	 * Flush every packet as soon as it is sent
+	 */
+	public static final FlushPolicy IMMEDIATE = new FlushPolicy(1, false, 0);
+
+	private final int max_writes;
+	private final boolean read_batch;
+	private final long deadline;
+
+	private FlushPolicy(int max_writes, boolean read_batch, long deadline) {
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, max_writes, "Max writes must be at least 1");
+		NioValidate.betweenInc(0, Long.MAX_VALUE, deadline, "Deadline cannot be negative");
+
+		this.max_writes = max_writes;
+		this.read_batch = read_batch;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Flush once the given amount of packets have been written
+	 *
+	 * @param writes Amount of writes
+	 * @return FlushPolicy
+	 */
+	public static FlushPolicy afterWrites(int writes) {
+		return new FlushPolicy(writes, false, 0);
+	}
+
+	/**
+	 * Hold back flushes requested while reading until the read
+	 * batch completes, so all responses leave together.
+	 *
+	 * @return FlushPolicy
+	 */
+	public static FlushPolicy endOfReadBatch() {
+		return new FlushPolicy(Integer.MAX_VALUE, true, 0);
+	}
+
+	/**
+	 * Returns a copy of this policy which also holds back flushes
+	 * until the read batch completes
+	 *
+	 * @return FlushPolicy
+	 */
+	public FlushPolicy andEndOfReadBatch() {
+		return new FlushPolicy(max_writes, true, deadline);
+	}
+
+	/**
+	 * Returns a copy of this policy which flushes pending packets
+	 * at most the given amount of microseconds after they were sent
+	 *
+	 * @param micros Deadline in microseconds
+	 * @return FlushPolicy
+	 */
+	public FlushPolicy withDeadline(long micros) {
+		return new FlushPolicy(max_writes, read_batch, micros);
+	}
+
+	/**
+	 * Returns the amount of writes after which a flush is forced
+	 *
+	 * @return int
+	 */
+	public int getMaxWrites() {
+		return max_writes;
+	}
+
+	/**
+	 * Returns true when flushes are held back until the read batch completes
+	 *
+	 * @return boolean
+	 */
+	public boolean isReadBatched() {
+		return read_batch;
+	}
+
+	/**
+	 * Returns the flush deadline in microseconds, 0 meaning the
+	 * next run of the event loop
+	 *
+	 * @return long
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Returns true when every packet is flushed right away
+	 *
+	 * @return boolean
+	 */
+	public boolean isImmediate() {
+		return max_writes == 1;
+	}
+
+}
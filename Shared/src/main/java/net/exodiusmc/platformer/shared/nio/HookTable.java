@@ -0,0 +1,121 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import com.google.common.collect.ListMultimap;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the hooks of a ChannelManager. Registering or removing a
+ * hook replaces the snapshot copy-on-write, so hooks can be called from
+ * any event loop without locking, and hooks may (un)register other hooks
+ * while being called.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class HookTable {
+
+	private static final Consumer<PacketConnection>[] NONE = newArray(0);
+
+	private volatile Map<HookType, Consumer<PacketConnection>[]> hooks;
+
+	/**
+	 * Create a new HookTable containing the given hooks
+	 *
+	 * @param initial Hooks registered during NetworkInstance building
+	 */
+	public HookTable(ListMultimap<HookType, Consumer<PacketConnection>> initial) {
+		Map<HookType, Consumer<PacketConnection>[]> snapshot = new EnumMap<>(HookType.class);
+
+		for(HookType type : HookType.values()) {
+			List<Consumer<PacketConnection>> list = initial.get(type);
+
+			snapshot.put(type, list.isEmpty() ? NONE : list.toArray(newArray(list.size())));
+		}
+
+		this.hooks = snapshot;
+	}
+
+	/**
+	 * Returns the hooks of the given type, in the order they were
+	 * registered. The returned array must not be modified.
+	 *
+	 * @param type HookType
+	 * @return Hook array
+	 */
+	public Consumer<PacketConnection>[] get(HookType type) {
+		return hooks.get(type);
+	}
+
+	/**
+	 * Add a hook
+	 *
+	 * @param type HookType
+	 * @param hook Hook
+	 */
+	public synchronized void add(HookType type, Consumer<PacketConnection> hook) {
+		Consumer<PacketConnection>[] current = hooks.get(type);
+		Consumer<PacketConnection>[] grown = Arrays.copyOf(current, current.length + 1);
+
+		grown[current.length] = hook;
+
+		replace(type, grown);
+	}
+
+	/**
+	 * Remove a hook
+	 *
+	 * @param type HookType
+	 * @param hook Hook
+	 * @return false when the hook was not registered
+	 */
+	public synchronized boolean remove(HookType type, Consumer<PacketConnection> hook) {
+		Consumer<PacketConnection>[] current = hooks.get(type);
+
+		for(int i = 0; i < current.length; i++) {
+			if(!current[i].equals(hook)) continue;
+
+			Consumer<PacketConnection>[] shrunk = current.length == 1 ? NONE : newArray(current.length - 1);
+
+			System.arraycopy(current, 0, shrunk, 0, i);
+			System.arraycopy(current, i + 1, shrunk, i, shrunk.length - i);
+
+			replace(type, shrunk);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Publish a new snapshot with the hooks of one type replaced
+	 *
+	 * @param type HookType
+	 * @param replacement New hooks
+	 */
+	private void replace(HookType type, Consumer<PacketConnection>[] replacement) {
+		Map<HookType, Consumer<PacketConnection>[]> snapshot = new EnumMap<>(hooks);
+
+		snapshot.put(type, replacement);
+
+		this.hooks = snapshot;
+	}
+
+	/**
+	 * Create a hook array. Generic arrays can't be created directly,
+	 * so this is the only place the raw array is cast.
+	 *
+	 * @param length Array length
+	 * @return Hook array
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Consumer<PacketConnection>[] newArray(int length) {
+		return new Consumer[length];
+	}
+
+}
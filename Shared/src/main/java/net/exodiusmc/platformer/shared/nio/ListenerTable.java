@@ -0,0 +1,125 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
+import net.exodiusmc.platformer.shared.nio.handler.PacketResponseHandler;
+
+import java.util.Arrays;
+
+/**
+ * Dispatch table mapping packet ids to the listeners subscribed to them.
+ * The table is rebuilt copy-on-write when listeners are added or removed,
+ * so looking up the listeners of a packet takes a single array access
+ * and does not allocate.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class ListenerTable {
+
+	private static final PacketListener[] NONE = new PacketListener[0];
+
+	private final PacketRegistry packets;
+	private volatile PacketListener[][] table;
+
+	/**
+	 * Create a new, empty ListenerTable
+	 *
+	 * @param packets Registry used to resolve packet ids
+	 */
+	public ListenerTable(PacketRegistry packets) {
+		this.packets = packets;
+		this.table = new PacketListener[256][];
+
+		Arrays.fill(table, NONE);
+	}
+
+	/**
+	 * Returns the listeners subscribed to the given packet, in the
+	 * order they were added. The returned array must not be modified.
+	 *
+	 * @param packet Packet
+	 * @return PacketListener array
+	 */
+	public PacketListener[] get(Packet packet) {
+		PacketInfo info = packets.get(packet.getClass());
+
+		return info == null ? NONE : table[info.getId() & 0xFF];
+	}
+
+	/**
+	 * Add a listener to the table. Every request is answered with a single
+	 * response, so a packet can have only one {@link PacketResponseHandler}.
+	 *
+	 * @param listener PacketListener
+	 * @throws NioValidationException when a response handler is already subscribed to one of the packets
+	 */
+	public synchronized void add(PacketListener listener) {
+		PacketListener[][] copy = table.clone();
+
+		// Validate - check this is the only response handler of its packets
+		if(listener.getHandler() instanceof PacketResponseHandler) {
+			for(Class<? extends Packet> type : listener.getSubscribed()) {
+				PacketInfo info = packets.get(type);
+
+				if(info == null) continue;
+
+				for(PacketListener subscribed : copy[info.getId() & 0xFF]) {
+					if(subscribed.getHandler() instanceof PacketResponseHandler) {
+						throw new NioValidationException("Packet " + type.getSimpleName() + " already has a response handler");
+					}
+				}
+			}
+		}
+
+		for(Class<? extends Packet> type : listener.getSubscribed()) {
+			PacketInfo info = packets.get(type);
+
+			// Validate - unregistered packets are never received
+			if(NioValidate.isNull(info)) {
+				NioUtil.nettyLog("[WARNING] Subscribed to unknown packet '" + type.getSimpleName()
+					+ "'. Make sure this packet has been registered during NetworkInstance building.");
+				continue;
+			}
+
+			int slot = info.getId() & 0xFF;
+			PacketListener[] slot_listeners = Arrays.copyOf(copy[slot], copy[slot].length + 1);
+
+			slot_listeners[slot_listeners.length - 1] = listener;
+			copy[slot] = slot_listeners;
+		}
+
+		this.table = copy;
+	}
+
+	/**
+	 * Remove a listener from the table
+	 *
+	 * @param listener PacketListener
+	 */
+	public synchronized void remove(PacketListener listener) {
+		PacketListener[][] copy = table.clone();
+
+		for(int slot = 0; slot < copy.length; slot++) {
+			PacketListener[] slot_listeners = copy[slot];
+
+			for(int i = 0; i < slot_listeners.length; i++) {
+				if(slot_listeners[i] != listener) continue;
+
+				if(slot_listeners.length == 1) {
+					copy[slot] = NONE;
+				} else {
+					PacketListener[] shrunk = new PacketListener[slot_listeners.length - 1];
+
+					System.arraycopy(slot_listeners, 0, shrunk, 0, i);
+					System.arraycopy(slot_listeners, i + 1, shrunk, i, shrunk.length - i);
+					copy[slot] = shrunk;
+				}
+				break;
+			}
+		}
+
+		this.table = copy;
+	}
+
+}
@@ -13,7 +13,7 @@ public abstract class NetworkInstance {
 
 	private Logger logger;
 	private String name;
-	private boolean active;
+	private volatile boolean active;
 
 	/**
 	 * Create a new Netty NetworkInstance with the supplied logger
@@ -1,6 +1,7 @@
 package net.exodiusmc.platformer.shared.nio;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelOption;
 import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
 
 import java.nio.charset.StandardCharsets;
@@ -24,7 +25,9 @@ public class NioUtil {
 	}
 
 	/**
-	 * Read a string from the ByteBuf
+	 * Read a short-prefixed string from the ByteBuf. The string
+	 * is decoded straight from the buffer, without copying the
+	 * bytes into an intermediate buffer first.
 	 *
 	 * @param buffer Buffer
 	 * @return String
@@ -33,18 +36,141 @@ public class NioUtil {
 		// Get the length of the next string
 		short length = buffer.readShort();
 
+		// Validate - negative lengths are never written
+		if(length < 0) {
+			throw new NioNetworkException("Failed to read String: Negative length " + length);
+		}
+
 		// Read da string
-		return buffer.readBytes(length).toString(StandardCharsets.UTF_8);
+		return buffer.readCharSequence(length, StandardCharsets.UTF_8).toString();
 	}
 
 	/**
-	 * Write the given string onto the ByteBuf
+	 * Write the given string onto the ByteBuf, prefixed with its
+	 * length as a short. Strings longer than {@link Short#MAX_VALUE}
+	 * bytes can not be written using this method.
 	 *
+	 * @see #writeVarString(ByteBuf, String)
 	 * @param buffer Buffer
 	 * @param text String
 	 */
 	public static void writeString(ByteBuf buffer, String text) {
-		writeVarBytes(buffer, text.getBytes(StandardCharsets.UTF_8));
+		// String.getBytes is an intrinsic, encoding char by char into the buffer is slower
+		byte[] load = text.getBytes(StandardCharsets.UTF_8);
+
+		if(load.length > Short.MAX_VALUE) {
+			throw new NioNetworkException("Failed to write String: " + load.length + " bytes exceeds the short length prefix");
+		}
+
+		buffer.writeShort(load.length);
+		buffer.writeBytes(load);
+	}
+
+	/**
+	 * Read a VarInt-prefixed string from the ByteBuf. The string
+	 * is decoded straight from the buffer.
+	 *
+	 * @param buffer Buffer
+	 * @return String
+	 */
+	public static String readVarString(ByteBuf buffer) {
+		int length = readVarInt(buffer);
+
+		// Validate - check if the string is actually there
+		if(length < 0 || length > buffer.readableBytes()) {
+			throw new NioNetworkException("Failed to read VarString: Length " + length
+				+ " exceeds the " + buffer.readableBytes() + " readable bytes");
+		}
+
+		return buffer.readCharSequence(length, StandardCharsets.UTF_8).toString();
+	}
+
+	/**
+	 * Write the given string onto the ByteBuf, prefixed with its
+	 * length as a VarInt
+	 *
+	 * @param buffer Buffer
+	 * @param text String
+	 */
+	public static void writeVarString(ByteBuf buffer, String text) {
+		byte[] load = text.getBytes(StandardCharsets.UTF_8);
+
+		writeVarInt(buffer, load.length);
+		buffer.writeBytes(load);
+	}
+
+	/**
+	 * Read a VarInt from the buffer. VarInts use 7 bits per byte,
+	 * the most significant bit marks that another byte follows.
+	 *
+	 * @param buffer Buffer
+	 * @return int
+	 */
+	public static int readVarInt(ByteBuf buffer) {
+		int value = 0;
+
+		for(int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.readByte();
+
+			value |= (b & 0x7F) << shift;
+
+			if((b & 0x80) == 0) return value;
+		}
+
+		throw new NioNetworkException("Failed to read VarInt: Too many bytes");
+	}
+
+	/**
+	 * Write a VarInt to the buffer
+	 *
+	 * @see #readVarInt(ByteBuf)
+	 * @param buffer Buffer
+	 * @param value int
+	 */
+	public static void writeVarInt(ByteBuf buffer, int value) {
+		while((value & ~0x7F) != 0) {
+			buffer.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		buffer.writeByte(value);
+	}
+
+	/**
+	 * Read a VarLong from the buffer
+	 *
+	 * @see #readVarInt(ByteBuf)
+	 * @param buffer Buffer
+	 * @return long
+	 */
+	public static long readVarLong(ByteBuf buffer) {
+		long value = 0;
+
+		for(int shift = 0; shift < 70; shift += 7) {
+			byte b = buffer.readByte();
+
+			value |= (long) (b & 0x7F) << shift;
+
+			if((b & 0x80) == 0) return value;
+		}
+
+		throw new NioNetworkException("Failed to read VarLong: Too many bytes");
+	}
+
+	/**
+	 * Write a VarLong to the buffer
+	 *
+	 * @see #readVarInt(ByteBuf)
+	 * @param buffer Buffer
+	 * @param value long
+	 */
+	public static void writeVarLong(ByteBuf buffer, long value) {
+		while((value & ~0x7FL) != 0) {
+			buffer.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		buffer.writeByte((int) value);
 	}
 
 	/**
@@ -144,4 +270,16 @@ public class NioUtil {
 		}
 	}
 
+	/**
+	 * Cast a ChannelOption so it accepts any value. Used to apply
+	 * options that were stored together with their value.
+	 *
+	 * @param option ChannelOption
+	 * @return ChannelOption
+	 */
+	@SuppressWarnings("unchecked")
+	public static ChannelOption<Object> rawOption(ChannelOption<?> option) {
+		return (ChannelOption<Object>) option;
+	}
+
 }
@@ -0,0 +1,28 @@
+package net.exodiusmc.platformer.shared.nio;
+
+/**
+ * Decides what happens when a packet is sent to a connection whose
+ * pending queue is full.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * Drop the oldest queued packet to make room for the new one
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Drop the packet that is being sent
+	 */
+	DROP_NEW,
+
+	/**
+	 * Drop the packet that is being sent, and disconnect the slow connection
+	 */
+	DISCONNECT
+
+}
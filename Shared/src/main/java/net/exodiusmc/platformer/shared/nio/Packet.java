@@ -1,6 +1,8 @@
 package net.exodiusmc.platformer.shared.nio;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.Recycler;
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
 
 /**
  * Base class for all packet
@@ -11,6 +13,10 @@ import io.netty.buffer.ByteBuf;
  */
 public abstract class Packet {
 
+	// Pool state, only used by recyclable packets
+	Recycler.Handle<Packet> recycle_handle;
+	Throwable released;
+
 	public Packet() {}
 
 	/**
@@ -38,7 +44,38 @@ public abstract class Packet {
 	}
 
 	/**
-	 * Create a new packet object from the specified type
+	 * Throws an exception when this packet has been handed
+	 * back to its {@link PacketPool}. Recyclable packets
+	 * should call this from their getters.
+	 *
+	 * @throws NioValidationException when the packet was released
+	 */
+	public final void checkReleased() {
+		if(released != null) {
+			throw new NioValidationException("Use of " + getClass().getSimpleName()
+				+ " after it was released to its pool", released);
+		}
+	}
+
+	/**
+	 * Take this packet out of its pool, so it is not recycled after being
+	 * handled. Used when the packet outlives the handler call, for
+	 * example when it completes a future.
+	 */
+	void detach() {
+		this.recycle_handle = null;
+	}
+
+	/**
+	 * Clear the meta state of this packet before it is recycled
+	 */
+	void clearState() {
+	}
+
+	/**
+	 * Create a new packet object from the specified type. This uses
+	 * reflection, registered packets should be created through
+	 * {@link PacketInfo#create()} instead.
 	 *
 	 * @param pclass Packet
 	 * @return Packet
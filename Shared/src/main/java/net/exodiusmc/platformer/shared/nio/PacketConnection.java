@@ -1,8 +1,34 @@
 package net.exodiusmc.platformer.shared.nio;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.LongObjectMap;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
+import net.exodiusmc.platformer.shared.nio.pipeline.OutboundPacketEncoder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Represents a connection between a NetworkClient and a NetworkServer.
@@ -15,33 +41,66 @@ import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
  */
 public class PacketConnection {
 
+	// Channel attribute pointing back to the connection wrapping it
+	static final AttributeKey<PacketConnection> ATTRIBUTE = AttributeKey.valueOf("transfer.connection");
+
+	// Shared by all connections, expiry only needs to be roughly on time
+	private static final Timer RESPONSE_TIMER = new HashedWheelTimer(
+		new DefaultThreadFactory("transfer-timeouts", true), 100, TimeUnit.MILLISECONDS);
+
 	private long creation_time;
+	private ChannelManager manager;
 	private SocketChannel channel;
 	private String name;
 	private boolean authenticated;
 
+	// Only accessed from the event loop of the channel
+	private Queue<PendingWrite> pending_writes;
+	private LongObjectMap<PendingResponse> pending_responses;
+	private long next_response_id;
+	private AtomicInteger in_flight;
+	private SerialExecutor handler_executor;
+	private long received;
+
+	// Written from the event loop, in nanoseconds
+	private volatile long smoothed_rtt = -1;
+	private volatile long rtt_variation = -1;
+
 	/**
 	 * Create a new PacketConnection wrapper over the
 	 * supplied SocketChannel
 	 *
+	 * @param manager ChannelManager owning the channel
 	 * @param channel SocketChannel
 	 */
-	public PacketConnection(SocketChannel channel) {
-		this.channel = channel;
-		this.name = "anonymous";
-		this.creation_time = System.currentTimeMillis();
+	public PacketConnection(ChannelManager manager, SocketChannel channel) {
+		this(manager, channel, "anonymous");
 	}
 
 	/**
 	 * Create a new PacketConnection wrapper over the
 	 * supplied SocketChannel
 	 *
+	 * @param manager ChannelManager owning the channel
 	 * @param channel SocketChannel
 	 * @param name Connection name
 	 */
-	public PacketConnection(SocketChannel channel, String name) {
+	public PacketConnection(ChannelManager manager, SocketChannel channel, String name) {
+		this.manager = manager;
 		this.channel = channel;
 		this.name = name;
+		this.creation_time = System.currentTimeMillis();
+		this.pending_writes = new ArrayDeque<>();
+		this.pending_responses = new LongObjectHashMap<>();
+		this.in_flight = new AtomicInteger();
+
+		channel.attr(ATTRIBUTE).set(this);
+
+		// Release whatever is left once the channel closes
+		channel.closeFuture().addListener(future -> {
+			failPending();
+			clearResponses();
+		});
 	}
 
 	/**
@@ -63,11 +122,26 @@ public class PacketConnection {
 	}
 
 	/**
-	 * Send a packet to this connection
+	 * Send a packet to this connection and flush it
 	 *
 	 * @param packet Packet
 	 */
 	public void sendPacket(Packet packet) {
+		send(packet);
+		flush();
+	}
+
+	/**
+	 * Write a packet to this connection without flushing it. The
+	 * packet will not leave until {@link #flush()} is called, which
+	 * allows multiple packets to be sent using a single syscall.
+	 * <br>
+	 * When the channel is not writable the packet is put in the
+	 * pending queue of this connection instead.
+	 *
+	 * @param packet Packet
+	 */
+	public void send(Packet packet) {
 		// Validate - Nullcheck
 		NioValidate.isNull(packet, "Packet cannot be null");
 
@@ -77,15 +151,461 @@ public class PacketConnection {
 				"Failed to send " + packet.getClass().getSimpleName() + " packet");
 		}
 
-		// Check if we can write
-		if(!channel.isWritable()) {
-			throw new NioNetworkException("Failed to write to channel");
+		// TODO: Packet send rule
+
+		// Write the packet down the pipeline
+		write(packet, channel.newPromise(), false);
+	}
+
+	/**
+	 * Send a packet to this connection and flush it. Instead of throwing,
+	 * failures are reported through the returned future. When the channel
+	 * is not writable the packet waits in the pending queue, and the future
+	 * completes once the packet has actually been written.
+	 *
+	 * @param packet Packet
+	 * @return ChannelFuture
+	 */
+	public ChannelFuture sendAsync(Packet packet) {
+		// Validate - Nullcheck
+		NioValidate.isNull(packet, "Packet cannot be null");
+
+		ChannelPromise promise = channel.newPromise();
+
+		if(!channel.isActive()) {
+			return promise.setFailure(new NioNetworkException("Cannot send "
+				+ packet.getClass().getSimpleName() + " packet over closed channel"));
 		}
 
-		// TODO: Packet send rule
+		write(packet, promise, true);
+
+		return promise;
+	}
+
+	/**
+	 * Flush all packets written to this connection
+	 */
+	public void flush() {
+		channel.flush();
+	}
+
+	/**
+	 * Write an already encoded frame to this connection and flush it. The
+	 * frame must contain the length prefix, as it is written past the packet
+	 * encoder. Ownership of the frame is transferred to this method: it is
+	 * always released, also when the channel is closed or the frame is
+	 * dropped from the pending queue.
+	 *
+	 * @param frame Encoded frame
+	 * @return false when the channel is closed or its event loop shut down
+	 */
+	public boolean sendFrame(ByteBuf frame) {
+		if(!channel.isActive()) {
+			frame.release();
+			return false;
+		}
+
+		if(!channel.eventLoop().inEventLoop()) {
+			try {
+				channel.eventLoop().execute(() -> writeFrame(frame, channel.voidPromise()));
+			} catch(RejectedExecutionException ex) {
+				// The loop is shutting down, the frame will never be written
+				frame.release();
+				return false;
+			}
+			return true;
+		}
+
+		writeFrame(frame, channel.voidPromise());
+
+		return true;
+	}
+
+	/**
+	 * Write a burst of encoded frames to this connection, followed by a single
+	 * flush, so they leave in as few writes as possible. The burst is written
+	 * as a whole, also when it exceeds the write buffer watermark, so its size
+	 * should be bounded by the caller. Ownership of the frames is transferred
+	 * to this method. Must be called from the event loop.
+	 *
+	 * @param frames Encoded frames
+	 */
+	public void sendFrames(Collection<ByteBuf> frames) {
+		ChannelHandlerContext ctx = channel.pipeline().context("OutboundPacketEncoder");
+
+		if(ctx == null || !channel.isActive()) {
+			frames.forEach(ByteBuf::release);
+			return;
+		}
+
+		for(ByteBuf frame : frames) {
+			// Stay behind frames that are already queued
+			if(pending_writes.isEmpty()) {
+				ctx.write(frame, channel.voidPromise());
+			} else {
+				enqueue(frame, channel.voidPromise());
+			}
+		}
+
+		ctx.flush();
+	}
+
+	/**
+	 * Returns the amount of frames waiting for the channel to become
+	 * writable. Only accurate when called from the event loop.
+	 *
+	 * @return int
+	 */
+	public int pendingWrites() {
+		return pending_writes.size();
+	}
+
+	/**
+	 * Write a packet, or queue it when the channel is not writable
+	 *
+	 * @param packet Packet
+	 * @param promise Write promise
+	 * @param flush Flush after writing
+	 */
+	private void write(Packet packet, ChannelPromise promise, boolean flush) {
+		if(!channel.eventLoop().inEventLoop()) {
+			try {
+				channel.eventLoop().execute(() -> write(packet, promise, flush));
+			} catch(RejectedExecutionException ex) {
+				// The loop is shutting down, the packet will never be written
+				if(!promise.isVoid()) promise.tryFailure(ex);
+			}
+			return;
+		}
+
+		// Closed while the write was on its way, the pending queue
+		// has already been failed and would never be drained again
+		if(!channel.isActive()) {
+			if(!promise.isVoid()) {
+				promise.tryFailure(new NioNetworkException("Cannot send "
+					+ packet.getClass().getSimpleName() + " packet over closed channel"));
+			}
+			return;
+		}
+
+		if(pending_writes.isEmpty() && channel.isWritable()) {
+			channel.write(packet, promise);
+
+			if(flush) channel.flush();
+			return;
+		}
+
+		// Encode right away: the packet may be recycled or
+		// modified by the caller before the queue drains
+		ByteBuf frame = OutboundPacketEncoder.encodeFrame(manager, this, channel.alloc(), packet);
+
+		if(frame == null) {
+			promise.tryFailure(new NioNetworkException("Cannot send unknown packet "
+				+ packet.getClass().getSimpleName()));
+			return;
+		}
+
+		enqueue(frame, promise);
+	}
+
+	/**
+	 * Write an encoded frame, or queue it when the channel is not writable.
+	 * Must be called from the event loop.
+	 *
+	 * @param frame Encoded frame
+	 * @param promise Write promise
+	 */
+	private void writeFrame(ByteBuf frame, ChannelPromise promise) {
+		// Skip the encoder, see ChannelManager#setupPipeline
+		ChannelHandlerContext ctx = channel.pipeline().context("OutboundPacketEncoder");
+
+		if(ctx == null || !channel.isActive()) {
+			new PendingWrite(frame, promise).fail("Channel closed");
+			return;
+		}
+
+		if(pending_writes.isEmpty() && channel.isWritable()) {
+			// The channel releases the frame once written or failed
+			ctx.writeAndFlush(frame, promise);
+			return;
+		}
+
+		enqueue(frame, promise);
+	}
+
+	/**
+	 * Add a frame to the pending queue, applying the overflow
+	 * policy when the queue is full. Frames added after the channel
+	 * closed are failed right away, as the queue is not drained anymore.
+	 *
+	 * @param frame Encoded frame
+	 * @param promise Write promise
+	 */
+	private void enqueue(ByteBuf frame, ChannelPromise promise) {
+		if(!channel.isActive()) {
+			new PendingWrite(frame, promise).fail("Channel closed");
+			return;
+		}
+
+		if(pending_writes.size() >= manager.getSettings().getPendingLimit()) {
+			switch(manager.getSettings().getOverflowPolicy()) {
+				case DROP_OLDEST:
+					pending_writes.poll().fail("Dropped from the pending queue");
+					break;
+
+				case DROP_NEW:
+					new PendingWrite(frame, promise).fail("Pending queue is full");
+					return;
+
+				case DISCONNECT:
+					new PendingWrite(frame, promise).fail("Pending queue is full");
+					disconnect("Too many pending packets");
+					return;
+			}
+		}
+
+		pending_writes.add(new PendingWrite(frame, promise));
+	}
+
+	/**
+	 * Write queued frames for as long as the channel stays writable.
+	 * Called by the pipeline when the writability of the channel changes.
+	 */
+	public void drainPending() {
+		if(pending_writes.isEmpty()) return;
+
+		ChannelHandlerContext ctx = channel.pipeline().context("OutboundPacketEncoder");
+
+		if(ctx == null) return;
+
+		while(channel.isWritable() && !pending_writes.isEmpty()) {
+			PendingWrite write = pending_writes.poll();
+
+			ctx.write(write.frame, write.promise);
+		}
+
+		ctx.flush();
+	}
+
+	/**
+	 * Release all queued frames after the channel closed
+	 */
+	private void failPending() {
+		while(!pending_writes.isEmpty()) {
+			pending_writes.poll().fail("Channel closed");
+		}
+	}
+
+	/**
+	 * Send a request to this connection, using the default response timeout
+	 *
+	 * @see #request(RespondablePacket, long, TimeUnit, Executor)
+	 * @param packet Request
+	 * @param <T> Packet type
+	 * @return Future completed with the response
+	 */
+	public <T extends RespondablePacket> CompletableFuture<T> request(T packet) {
+		return request(packet, manager.getSettings().getResponseTimeout(), TimeUnit.MILLISECONDS, null);
+	}
+
+	/**
+	 * Send a request to this connection and flush it. The returned future
+	 * completes with the response, or fails when the request could not be
+	 * sent, timed out or the channel closed.
+	 * <br>
+	 * When the connection already awaits the maximum amount of requests the
+	 * future fails right away, callers should slow down until responses
+	 * have arrived.
+	 *
+	 * @param packet Request
+	 * @param timeout Time to wait for the response
+	 * @param unit Time unit
+	 * @param executor Executor completing the future, or null to complete it on the event loop
+	 * @param <T> Packet type
+	 * @return Future completed with the response
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends RespondablePacket> CompletableFuture<T> request(T packet, long timeout, TimeUnit unit, Executor executor) {
+		// Validate - Nullcheck
+		NioValidate.isNull(packet, "Packet cannot be null");
+		NioValidate.betweenInc(1, Long.MAX_VALUE, timeout, "Response timeout must be positive");
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+
+		if(packet.isResponse()) {
+			future.completeExceptionally(new NioNetworkException("Cannot request a response packet"));
+			return future;
+		}
+
+		if(in_flight.incrementAndGet() > manager.getSettings().getMaxInFlight()) {
+			in_flight.decrementAndGet();
+			future.completeExceptionally(new NioNetworkException("Too many requests in flight"));
+			return future;
+		}
+
+		PendingResponse pending = new PendingResponse(unit.toMillis(timeout), executor,
+			(CompletableFuture) future, null);
+
+		if(!channel.isActive()) {
+			pending.fail(new NioNetworkException("Cannot send "
+				+ packet.getClass().getSimpleName() + " packet over closed channel"));
+			return future;
+		}
+
+		ChannelPromise promise = channel.newPromise();
+
+		// The response will never arrive when the request is not sent
+		promise.addListener(f -> {
+			if(!f.isSuccess()) pending.fail(f.cause());
+		});
+
+		packet.pending_request = pending;
+
+		write(packet, promise, true);
+
+		return future;
+	}
+
+	/**
+	 * Register an outgoing request, so its response can be correlated.
+	 * Requests sent through {@link #request(RespondablePacket)} bring their
+	 * own future, other requests are registered with their response handler.
+	 * The entry expires when no response arrives in time. Must be called
+	 * from the event loop.
+	 *
+	 * @param packet Request
+	 * @return Response id to send along with the request, 0 when nothing awaits the response
+	 */
+	public long registerResponse(RespondablePacket packet) {
+		PendingResponse pending = packet.pending_request;
+
+		if(pending == null) {
+			if(packet.getResponseHandler() == null) return 0;
+
+			in_flight.incrementAndGet();
+			pending = new PendingResponse(manager.getSettings().getResponseTimeout(),
+				null, null, packet.getResponseHandler());
+		}
+
+		// Resending the packet registers a new request
+		packet.pending_request = null;
+
+		pending.id = ++next_response_id;
+		pending.timeout = RESPONSE_TIMER.newTimeout(pending, pending.timeout_millis, TimeUnit.MILLISECONDS);
+
+		pending_responses.put(pending.id, pending);
+
+		return pending.id;
+	}
+
+	/**
+	 * Complete the request awaiting the given response.
+	 * Must be called from the event loop.
+	 *
+	 * @param response Response
+	 * @return false when the request expired or is unknown
+	 */
+	public boolean completeResponse(RespondablePacket response) {
+		PendingResponse pending = pending_responses.remove(response.getResponseId());
+
+		if(pending == null) return false;
+
+		pending.complete(response);
+
+		return true;
+	}
+
+	/**
+	 * Fail a registered request that could not be sent after all, and
+	 * free its slot. Must be called from the event loop.
+	 *
+	 * @param id Response id returned by {@link #registerResponse(RespondablePacket)}
+	 * @param cause Failure cause
+	 */
+	public void cancelResponse(long id, Throwable cause) {
+		PendingResponse pending = pending_responses.get(id);
+
+		if(pending != null) pending.fail(cause);
+	}
+
+	/**
+	 * Returns the amount of requests awaiting a response
+	 *
+	 * @return int
+	 */
+	public int requestsInFlight() {
+		return in_flight.get();
+	}
+
+	/**
+	 * Fail all requests awaiting a response after the channel closed
+	 */
+	private void clearResponses() {
+		NioNetworkException closed = new NioNetworkException("Channel closed before the response arrived");
+		List<PendingResponse> left = new ArrayList<>(pending_responses.values());
+
+		pending_responses.clear();
+
+		for(PendingResponse pending : left) {
+			pending.fail(closed);
+		}
+	}
+
+	/**
+	 * Add a round trip time sample, measured by the heartbeat. The smoothed
+	 * round trip time and its variation are calculated as in RFC 6298.
+	 * Must be called from the event loop.
+	 *
+	 * @param rtt Round trip time in nanoseconds
+	 */
+	public void recordRoundTrip(long rtt) {
+		if(smoothed_rtt < 0) {
+			rtt_variation = rtt / 2;
+			smoothed_rtt = rtt;
+			return;
+		}
+
+		rtt_variation = (3 * rtt_variation + Math.abs(smoothed_rtt - rtt)) / 4;
+		smoothed_rtt = (7 * smoothed_rtt + rtt) / 8;
+	}
+
+	/**
+	 * Returns the smoothed round trip time of this connection
+	 *
+	 * @param unit Time unit
+	 * @return Round trip time, or -1 when not measured yet
+	 */
+	public long getRoundTripTime(TimeUnit unit) {
+		long rtt = smoothed_rtt;
+
+		return rtt < 0 ? -1 : unit.convert(rtt, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the jitter of this connection: the smoothed
+	 * variation of the round trip time
+	 *
+	 * @param unit Time unit
+	 * @return Jitter, or -1 when not measured yet
+	 */
+	public long getJitter(TimeUnit unit) {
+		long variation = rtt_variation;
+
+		return variation < 0 ? -1 : unit.convert(variation, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the executor running the offloaded listeners of this
+	 * connection in order. Must be called from the event loop.
+	 *
+	 * @return SerialExecutor
+	 */
+	SerialExecutor handlerExecutor() {
+		if(handler_executor == null) {
+			handler_executor = new SerialExecutor(manager.handlerExecutor(), manager.getParent().logger());
+		}
 
-		// Flush the packet down the pipeline
-		channel.writeAndFlush(packet);
+		return handler_executor;
 	}
 
 	/**
@@ -114,6 +634,27 @@ public class PacketConnection {
 		return authenticated;
 	}
 
+	/**
+	 * Count a received packet. Only packets that are not system packets and
+	 * arrive once the connection is authenticated are counted, which matches
+	 * the packets a server keeps to resume a session.
+	 * Must be called from the event loop.
+	 *
+	 * @param id Packet id
+	 */
+	public void countReceived(byte id) {
+		if(id >= 0 && authenticated) received++;
+	}
+
+	/**
+	 * Returns the amount of packets counted by {@link #countReceived(byte)}
+	 *
+	 * @return long
+	 */
+	public long getReceivedPackets() {
+		return received;
+	}
+
 	/**
 	 * Mark this connection as authenticated
 	 *
@@ -133,4 +674,132 @@ public class PacketConnection {
 		return channel;
 	}
 
+	/**
+	 * Request awaiting its response. Completes either a future
+	 * or a response handler, exactly once.
+	 */
+	class PendingResponse implements TimerTask {
+
+		private long id;
+		private long timeout_millis;
+		private Executor executor;
+		private CompletableFuture<Packet> future;
+		private Consumer<Packet> handler;
+		private Timeout timeout;
+		private boolean done;
+
+		private PendingResponse(long timeout_millis, Executor executor, CompletableFuture<Packet> future, Consumer<Packet> handler) {
+			this.timeout_millis = timeout_millis;
+			this.executor = executor;
+			this.future = future;
+			this.handler = handler;
+		}
+
+		/**
+		 * Hand the response to the future or handler.
+		 * Called from the event loop.
+		 *
+		 * @param response Response
+		 */
+		private void complete(RespondablePacket response) {
+			if(!finish()) return;
+
+			if(future == null) {
+				handler.accept(response);
+				return;
+			}
+
+			// The future may be used long after the packet was handled
+			response.detach();
+
+			if(executor == null) {
+				future.complete(response);
+			} else {
+				executor.execute(() -> future.complete(response));
+			}
+		}
+
+		/**
+		 * Fail the future, if any.
+		 * Called from the event loop.
+		 *
+		 * @param cause Failure cause
+		 */
+		private void fail(Throwable cause) {
+			if(!finish()) return;
+
+			// Also remove entries that failed after being registered
+			if(id != 0) pending_responses.remove(id);
+
+			if(future == null) return;
+
+			if(executor == null) {
+				future.completeExceptionally(cause);
+			} else {
+				executor.execute(() -> future.completeExceptionally(cause));
+			}
+		}
+
+		/**
+		 * Mark this request as done
+		 *
+		 * @return false when it was already done
+		 */
+		private boolean finish() {
+			if(done) return false;
+
+			done = true;
+			in_flight.decrementAndGet();
+
+			if(timeout != null) timeout.cancel();
+
+			return true;
+		}
+
+		@Override
+		public void run(Timeout timeout) {
+			try {
+				// The table is confined to the event loop
+				channel.eventLoop().execute(() -> {
+					if(pending_responses.get(id) == this) {
+						manager.responseExpired();
+						fail(new TimeoutException("No response to request " + id
+							+ " within " + timeout_millis + "ms"));
+					}
+				});
+			} catch(RejectedExecutionException ex) {
+				// The loop is shutting down and won't run the task, fail right here
+				fail(new NioNetworkException("Event loop shut down before the response arrived", ex));
+			}
+		}
+	}
+
+	/**
+	 * Frame waiting in the pending queue
+	 */
+	private static class PendingWrite {
+
+		private ByteBuf frame;
+		private ChannelPromise promise;
+
+		private PendingWrite(ByteBuf frame, ChannelPromise promise) {
+			this.frame = frame;
+			this.promise = promise;
+		}
+
+		/**
+		 * Release the frame and fail the promise
+		 *
+		 * @param reason Failure reason
+		 */
+		private void fail(String reason) {
+			frame.release();
+
+			// Void promises would fire the failure down the pipeline
+			if(!promise.isVoid()) {
+				promise.tryFailure(new NioNetworkException(reason));
+			}
+		}
+	}
+
 }
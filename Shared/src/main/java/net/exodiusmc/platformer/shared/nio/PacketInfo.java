@@ -1,21 +1,58 @@
 package net.exodiusmc.platformer.shared.nio;
 
+import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.function.Supplier;
+
 /**
  * Packet-specific information can be stored on PacketInfo objects.
- * These objects contain the packet id and packet class.
+ * These objects contain the packet id, packet class and the factory
+ * used to construct new instances of the packet.
  *
  * @author Macjuul
- * @version 2.0.0
+ * @version 2.1.0
  * @since 26-1-2017
  */
 public class PacketInfo {
 
 	private byte id;
 	private Class<? extends Packet> clazz;
+	private Supplier<? extends Packet> factory;
+	private PacketPool pool;
 
+	/**
+	 * Create a new PacketInfo. A factory calling the no-args
+	 * constructor of the packet class is generated automatically.
+	 *
+	 * @param id packet id
+	 * @param clazz packet class
+	 */
 	public PacketInfo(int id, Class<? extends Packet> clazz) {
 		this.id = (byte) id;
 		this.clazz = clazz;
+		this.factory = clazz == null ? null : generateFactory(clazz);
+		this.pool = createPool(clazz, factory);
+	}
+
+	/**
+	 * Create a new PacketInfo using the supplied factory,
+	 * for example {@code ChatSendPacket::new}
+	 *
+	 * @param id packet id
+	 * @param clazz packet class
+	 * @param factory packet factory
+	 */
+	public PacketInfo(int id, Class<? extends Packet> clazz, Supplier<? extends Packet> factory) {
+		this.id = (byte) id;
+		this.clazz = clazz;
+		this.factory = factory;
+		this.pool = createPool(clazz, factory);
 	}
 
 	/**
@@ -36,4 +73,92 @@ public class PacketInfo {
 		return clazz;
 	}
 
+	/**
+	 * Returns the factory used to construct the packet
+	 *
+	 * @return packet factory
+	 */
+	public Supplier<? extends Packet> getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Returns true when the packet is {@link Recyclable}
+	 *
+	 * @return boolean
+	 */
+	public boolean isRecyclable() {
+		return pool != null;
+	}
+
+	/**
+	 * Create a new, empty instance of the packet. Recyclable
+	 * packets are taken from the pool of the current thread.
+	 *
+	 * @return Packet
+	 */
+	public Packet create() {
+		return pool != null ? pool.acquire() : factory.get();
+	}
+
+	/**
+	 * Create a pool for the packet when it is recyclable
+	 *
+	 * @param clazz packet class
+	 * @param factory packet factory
+	 * @return PacketPool, or null
+	 */
+	private static PacketPool createPool(Class<? extends Packet> clazz, Supplier<? extends Packet> factory) {
+		if(clazz == null || factory == null || !Recyclable.class.isAssignableFrom(clazz)) {
+			return null;
+		}
+
+		return new PacketPool(factory);
+	}
+
+	/**
+	 * Generate a factory that calls the no-args constructor of the given
+	 * packet class directly. When the class can not be linked from here
+	 * (i.e. it lives in a different class loader) a reflective factory
+	 * is used instead.
+	 *
+	 * @param clazz packet class
+	 * @return packet factory
+	 */
+	@SuppressWarnings("unchecked")
+	private static Supplier<? extends Packet> generateFactory(Class<? extends Packet> clazz) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+
+			CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+				MethodType.methodType(Supplier.class),
+				MethodType.methodType(Object.class),
+				constructor,
+				MethodType.methodType(clazz));
+
+			return (Supplier<? extends Packet>) site.getTarget().invokeExact();
+		} catch(Throwable ignored) {
+			// Fall through to the reflective factory
+		}
+
+		Constructor<? extends Packet> constructor;
+
+		try {
+			constructor = clazz.getDeclaredConstructor();
+			constructor.setAccessible(true);
+		} catch(Exception ex) {
+			throw new NioNetworkException("Couldn't create a factory for packet " + clazz.getSimpleName()
+				+ ". Did you make sure the packet allows direct constructing?", ex);
+		}
+
+		return () -> {
+			try {
+				return constructor.newInstance();
+			} catch(Exception ex) {
+				throw new NioNetworkException("Couldn't create packet " + clazz.getSimpleName(), ex);
+			}
+		};
+	}
+
 }
@@ -18,19 +18,16 @@ public class PacketListener {
 
 	private Set<Class<? extends Packet>> packets;
 	private PacketHandlerInterface handler;
+	private volatile boolean offloaded;
 
 	public PacketListener(Class<? extends Packet> type, PacketHandlerInterface handler) {
-		this.packets = new HashSet<>();
+		this.packets = Collections.singleton(type);
 		this.handler = handler;
-
-		packets.add(type);
 	}
 
 	public PacketListener(List<Class<? extends Packet>> types, PacketHandlerInterface handler) {
-		this.packets = new HashSet<>();
+		this.packets = Collections.unmodifiableSet(new HashSet<>(types));
 		this.handler = handler;
-
-		packets.addAll(types);
 	}
 
 	/**
@@ -39,7 +36,7 @@ public class PacketListener {
 	 * @return Class set
 	 */
 	public Set<Class<? extends Packet>> getSubscribed() {
-		return Collections.unmodifiableSet(packets);
+		return packets;
 	}
 
 	/**
@@ -51,4 +48,25 @@ public class PacketListener {
 		return handler;
 	}
 
+	/**
+	 * Run this listener on the handler executor instead of the I/O thread.
+	 * Use this for handlers that block or take long, like database writes.
+	 * Offloaded listeners of one connection are called in packet order.
+	 *
+	 * @return self
+	 */
+	public PacketListener offload() {
+		this.offloaded = true;
+		return this;
+	}
+
+	/**
+	 * Returns true when this listener runs on the handler executor
+	 *
+	 * @return boolean
+	 */
+	public boolean isOffloaded() {
+		return offloaded;
+	}
+
 }
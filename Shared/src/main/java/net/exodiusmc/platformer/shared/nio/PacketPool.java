@@ -0,0 +1,85 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import io.netty.util.Recycler;
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
+
+import java.util.function.Supplier;
+
+/**
+ * Pool of {@link Recyclable} packet instances. Instances are cached per
+ * thread, meaning every event loop effectively has its own pool.
+ * <br>
+ * When debug mode is enabled (-Dtransfer.packets.debugRecycling=true),
+ * released packets are never reused. Instead, every released instance
+ * remembers where it was released, and any later use of the instance
+ * throws a {@link NioValidationException} pointing at that location.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class PacketPool {
+
+	private static final boolean DEBUG = Boolean.getBoolean("transfer.packets.debugRecycling");
+
+	// Shared release marker used outside of debug mode
+	private static final Throwable RELEASED = new Throwable("Packet released (enable debug mode for the location)", null, false, false) {};
+
+	private Recycler<Packet> recycler;
+
+	/**
+	 * Create a new PacketPool
+	 *
+	 * @param factory packet factory
+	 */
+	PacketPool(Supplier<? extends Packet> factory) {
+		this.recycler = new Recycler<Packet>() {
+			@Override
+			protected Packet newObject(Handle<Packet> handle) {
+				Packet packet = factory.get();
+
+				packet.recycle_handle = handle;
+
+				return packet;
+			}
+		};
+	}
+
+	/**
+	 * Take a packet from the pool of the current thread
+	 *
+	 * @return Packet
+	 */
+	public Packet acquire() {
+		Packet packet = recycler.get();
+
+		packet.released = null;
+
+		return packet;
+	}
+
+	/**
+	 * Hand a packet back to the pool it was taken from. Packets that were
+	 * not taken from a pool are ignored.
+	 *
+	 * @param packet Packet
+	 */
+	public static void release(Packet packet) {
+		if(packet.recycle_handle == null) return;
+
+		// Validate - check for double releases
+		packet.checkReleased();
+
+		// Clear the payload and meta fields
+		((Recyclable) packet).reset();
+		packet.clearState();
+
+		if(DEBUG) {
+			// Remember where we were released, and never reuse this instance
+			packet.released = new Throwable("Packet released here");
+		} else {
+			packet.released = RELEASED;
+			packet.recycle_handle.recycle(packet);
+		}
+	}
+}
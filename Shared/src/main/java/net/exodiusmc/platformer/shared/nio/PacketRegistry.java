@@ -0,0 +1,119 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Immutable lookup table of all packets known to a NetworkInstance. The
+ * registry is frozen when the NetworkInstance is built, after which
+ * packet id and class lookups are done without hashing or boxing.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public final class PacketRegistry {
+
+	private final PacketInfo[] by_id;
+	private final ClassValue<PacketInfo> by_class;
+
+	/**
+	 * Create a new frozen PacketRegistry
+	 *
+	 * @param by_id Packet id table
+	 * @param classes Packet class table
+	 */
+	private PacketRegistry(PacketInfo[] by_id, Map<Class<?>, PacketInfo> classes) {
+		this.by_id = by_id;
+		this.by_class = new ClassValue<PacketInfo>() {
+			@Override
+			protected PacketInfo computeValue(Class<?> type) {
+				return classes.get(type);
+			}
+		};
+	}
+
+	/**
+	 * Returns the packet registered with the given id
+	 *
+	 * @param id packet id
+	 * @return PacketInfo, or null when unknown
+	 */
+	public PacketInfo get(byte id) {
+		return by_id[id & 0xFF];
+	}
+
+	/**
+	 * Returns the packet registered with the given class
+	 *
+	 * @param clazz packet class
+	 * @return PacketInfo, or null when unknown
+	 */
+	public PacketInfo get(Class<? extends Packet> clazz) {
+		return by_class.get(clazz);
+	}
+
+	/**
+	 * Create a new registry builder
+	 *
+	 * @return Builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Collects packets before freezing them into a PacketRegistry.
+	 * Duplicate ids and classes are rejected immediately.
+	 */
+	public static final class Builder {
+
+		private final PacketInfo[] by_id = new PacketInfo[256];
+		private final Map<Class<?>, PacketInfo> classes = new IdentityHashMap<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Register a new packet
+		 *
+		 * @param info packet info
+		 * @return self
+		 * @throws NioValidationException when the id or class is already registered
+		 */
+		public Builder register(PacketInfo info) {
+			NioValidate.isNull(info, "PacketInfo cannot be null");
+			NioValidate.isNull(info.getPacketClass(), "Packet class cannot be null");
+
+			int slot = info.getId() & 0xFF;
+
+			if(by_id[slot] != null) {
+				throw new NioValidationException("Duplicate packet id " + info.getId() + ": "
+					+ info.getPacketClass().getSimpleName() + " conflicts with "
+					+ by_id[slot].getPacketClass().getSimpleName());
+			}
+
+			if(classes.containsKey(info.getPacketClass())) {
+				throw new NioValidationException("Packet " + info.getPacketClass().getSimpleName()
+					+ " is already registered with id " + classes.get(info.getPacketClass()).getId());
+			}
+
+			by_id[slot] = info;
+			classes.put(info.getPacketClass(), info);
+
+			return this;
+		}
+
+		/**
+		 * Freeze the registered packets into a PacketRegistry
+		 *
+		 * @return PacketRegistry
+		 */
+		public PacketRegistry build() {
+			return new PacketRegistry(by_id.clone(), new IdentityHashMap<>(classes));
+		}
+	}
+
+}
@@ -15,8 +15,12 @@ import java.nio.charset.StandardCharsets;
  */
 public class PacketSystemAuthentication extends Packet {
 
+	private static final byte[] NO_SESSION = new byte[0];
+
 	private String name;
 	private char[] token;
+	private byte[] resume_token = NO_SESSION;
+	private long received;
 
 	public PacketSystemAuthentication() {}
 
@@ -25,6 +29,21 @@ public class PacketSystemAuthentication extends Packet {
 		this.token = token;
 	}
 
+	/**
+	 * Create an identification packet that attempts to resume a previous session
+	 *
+	 * @param name Identity
+	 * @param token Authentication token
+	 * @param resume_token Resume token of the previous session, empty to start a new session
+	 * @param received Amount of packets received in the previous session
+	 */
+	public PacketSystemAuthentication(String name, char[] token, byte[] resume_token, long received) {
+		this.name = name;
+		this.token = token;
+		this.resume_token = resume_token;
+		this.received = received;
+	}
+
 	/**
 	 * Returns the Identity stored on this packet
 	 *
@@ -43,6 +62,25 @@ public class PacketSystemAuthentication extends Packet {
 		return token;
 	}
 
+	/**
+	 * Returns the resume token of the session the client attempts to resume
+	 *
+	 * @return Token, empty when a new session is requested
+	 */
+	public byte[] getResumeToken() {
+		return resume_token;
+	}
+
+	/**
+	 * Returns the amount of packets the client received in the session it
+	 * attempts to resume. Only the packets after these are sent again.
+	 *
+	 * @return long
+	 */
+	public long getReceived() {
+		return received;
+	}
+
 	@Override
 	public void encodePayload(ByteBuf buffer) {
 		// Var[String] name
@@ -50,6 +88,12 @@ public class PacketSystemAuthentication extends Packet {
 
 		// Var[char[]] token
 		NioUtil.writeVarBytes(buffer, new String(token).getBytes(StandardCharsets.UTF_8));
+
+		// Var[byte[]] resume token
+		NioUtil.writeVarBytes(buffer, resume_token);
+
+		// VarLong received
+		NioUtil.writeVarLong(buffer, received);
 	}
 
 	@Override
@@ -59,5 +103,11 @@ public class PacketSystemAuthentication extends Packet {
 
 		// Var[char[]] token
 		this.token = new String(NioUtil.readVarBytes(buffer), StandardCharsets.UTF_8).toCharArray();
+
+		// Var[byte[]] resume token
+		this.resume_token = NioUtil.readVarBytes(buffer);
+
+		// VarLong received
+		this.received = NioUtil.readVarLong(buffer);
 	}
 }
@@ -13,13 +13,58 @@ import io.netty.buffer.ByteBuf;
  */
 public class PacketSystemAuthenticationSuccess extends Packet {
 
+	private byte[] resume_token;
+	private boolean resumed;
+
 	public PacketSystemAuthenticationSuccess() {}
 
+	/**
+	 * Create a new PacketSystemAuthenticationSuccess
+	 *
+	 * @param resume_token Token the client can use to resume the session, empty when resuming is disabled
+	 * @param resumed True when a previous session was resumed
+	 */
+	public PacketSystemAuthenticationSuccess(byte[] resume_token, boolean resumed) {
+		this.resume_token = resume_token;
+		this.resumed = resumed;
+	}
+
+	/**
+	 * Returns the token the client can use to resume this session after
+	 * reconnecting
+	 *
+	 * @return Token, empty when the server does not resume sessions
+	 */
+	public byte[] getResumeToken() {
+		return resume_token;
+	}
+
+	/**
+	 * Returns true when a previous session was resumed. The packets missed
+	 * since will follow this packet. When false, the client should
+	 * resynchronize any state it keeps.
+	 *
+	 * @return boolean
+	 */
+	public boolean isResumed() {
+		return resumed;
+	}
+
 	@Override
 	public void encodePayload(ByteBuf buffer) {
+		// Var[byte[]] resume token
+		NioUtil.writeVarBytes(buffer, resume_token);
+
+		// Boolean resumed
+		buffer.writeBoolean(resumed);
 	}
 
 	@Override
 	public void decodePayload(ByteBuf buffer) {
+		// Var[byte[]] resume token
+		this.resume_token = NioUtil.readVarBytes(buffer);
+
+		// Boolean resumed
+		this.resumed = buffer.readBoolean();
 	}
 }
@@ -0,0 +1,39 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The ping packet is sent periodically by both sides of a connection. The receiver
+ * answers with a {@link PacketSystemPong} carrying the same timestamp, which lets
+ * the sender measure the round trip time.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class PacketSystemPing extends Packet {
+
+	private long timestamp;
+
+	public PacketSystemPing() {}
+
+	public PacketSystemPing(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public void encodePayload(ByteBuf buffer) {
+		// long timestamp
+		buffer.writeLong(timestamp);
+	}
+
+	@Override
+	public void decodePayload(ByteBuf buffer) {
+		// long timestamp
+		this.timestamp = buffer.readLong();
+	}
+}
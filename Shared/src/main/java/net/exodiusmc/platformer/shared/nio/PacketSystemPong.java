@@ -0,0 +1,38 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The pong packet answers a {@link PacketSystemPing}. It echoes the timestamp of
+ * the ping, so the sender of the ping can measure the round trip time.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class PacketSystemPong extends Packet {
+
+	private long timestamp;
+
+	public PacketSystemPong() {}
+
+	public PacketSystemPong(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public void encodePayload(ByteBuf buffer) {
+		// long timestamp
+		buffer.writeLong(timestamp);
+	}
+
+	@Override
+	public void decodePayload(ByteBuf buffer) {
+		// long timestamp
+		this.timestamp = buffer.readLong();
+	}
+}
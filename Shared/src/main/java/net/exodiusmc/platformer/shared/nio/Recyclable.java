@@ -0,0 +1,21 @@
+package net.exodiusmc.platformer.shared.nio;
+
+/**
+ * Marks a packet as recyclable. Inbound instances of recyclable packets
+ * are taken from a per-thread pool by the decoder, and handed back to it
+ * once all listeners have been triggered. Listeners must therefore never
+ * hold on to a recyclable packet after they return.
+ *
+ * @see PacketPool
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public interface Recyclable {
+
+	/**
+	 * Clear all payload fields so the instance can be decoded again
+	 */
+	void reset();
+
+}
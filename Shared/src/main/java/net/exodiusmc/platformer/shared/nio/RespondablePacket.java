@@ -2,8 +2,6 @@ package net.exodiusmc.platformer.shared.nio;
 
 import io.netty.buffer.ByteBuf;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -15,12 +13,12 @@ import java.util.function.Consumer;
  */
 public abstract class RespondablePacket extends Packet {
 
-	public static byte RESPONSE_ID = 0;
-	private static Map<Byte, Consumer<Packet>> handlers = new HashMap<>();
-
 	private Consumer<Packet> response_handler;
 	private boolean response = false;
-	private byte resp_id;
+	private long resp_id;
+
+	// Set by PacketConnection#request until the request is encoded
+	PacketConnection.PendingResponse pending_request;
 
 	public RespondablePacket() {}
 
@@ -78,7 +76,7 @@ public abstract class RespondablePacket extends Packet {
 	 *
 	 * @param id id
 	 */
-	public void setResponseId(byte id) {
+	public void setResponseId(long id) {
 		this.resp_id = id;
 	}
 
@@ -87,10 +85,18 @@ public abstract class RespondablePacket extends Packet {
 	 *
 	 * @return Response ID
 	 */
-	public byte getResponseId() {
+	public long getResponseId() {
 		return resp_id;
 	}
 
+	@Override
+	void clearState() {
+		this.response_handler = null;
+		this.response = false;
+		this.resp_id = 0;
+		this.pending_request = null;
+	}
+
 	/**
 	 * packetSendRule final override. RespondablePackets will have
 	 * to be sent from both sides.
@@ -101,24 +107,4 @@ public abstract class RespondablePacket extends Packet {
 	public final SendRule packetSendRule() {
 		return SendRule.BOTH;
 	}
-
-	/**
-	 * Store a response handler
-	 *
-	 * @param id Id
-	 * @param handler Packet handler
-	 */
-	public static void storeHandler(byte id, Consumer<Packet> handler) {
-		handlers.put(id, handler);
-	}
-
-	/**
-	 * Retrieve the stored handler
-	 *
-	 * @param id Id
-	 * @return Packet handler
-	 */
-	public static Consumer<Packet> retrieveHandler(byte id) {
-		return handlers.get(id);
-	}
 }
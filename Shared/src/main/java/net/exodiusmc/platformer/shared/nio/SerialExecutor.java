@@ -0,0 +1,87 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executor running its tasks one at a time, in submission order, on a
+ * shared backing executor. Every connection owns one, so handlers of a
+ * single connection keep their packet order while handlers of different
+ * connections run in parallel.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class SerialExecutor implements Executor {
+
+	// Tasks run per drain, before yielding the thread to other connections
+	private static final int BATCH_SIZE = 64;
+
+	private final Executor backing;
+	private final Logger logger;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	/**
+	 * Create a new SerialExecutor
+	 *
+	 * @param backing Executor running the tasks
+	 * @param logger Logger used to report failing tasks
+	 */
+	public SerialExecutor(Executor backing, Logger logger) {
+		this.backing = backing;
+		this.logger = logger;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		tasks.add(task);
+		schedule();
+	}
+
+	/**
+	 * Submit a drain to the backing executor, unless one
+	 * is already running or scheduled
+	 */
+	private void schedule() {
+		if(tasks.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+
+		try {
+			backing.execute(this::drain);
+		} catch(RejectedExecutionException ex) {
+			scheduled.set(false);
+			tasks.clear();
+
+			logger.log(Level.WARNING, "Handler executor rejected tasks, dropping them", ex);
+		}
+	}
+
+	/**
+	 * Run a batch of queued tasks
+	 */
+	private void drain() {
+		try {
+			Runnable task;
+
+			for(int i = 0; i < BATCH_SIZE && (task = tasks.poll()) != null; i++) {
+				try {
+					task.run();
+				} catch(Exception ex) {
+					logger.log(Level.WARNING, "Exception caught during packet handling", ex);
+				}
+			}
+		} finally {
+			scheduled.set(false);
+
+			// Continue with tasks that were left or added since
+			schedule();
+		}
+	}
+
+}
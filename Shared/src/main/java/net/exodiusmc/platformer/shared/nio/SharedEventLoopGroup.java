@@ -0,0 +1,101 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * An EventLoopGroup that can be shared between multiple NetworkInstances.
+ * The group is reference counted: every running NetworkInstance holds a
+ * reference, and the group shuts down once the last reference is released.
+ * <br>
+ * The creator of the group holds the initial reference, and should
+ * release it once no new NetworkInstances will be started on the group.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class SharedEventLoopGroup extends AbstractReferenceCounted {
+
+	private final Transport transport;
+	private final EventLoopGroup group;
+	private final int threads;
+
+	/**
+	 * Create a new SharedEventLoopGroup
+	 *
+	 * @param transport Transport, resolved to EPOLL or NIO
+	 * @param group EventLoopGroup
+	 */
+	private SharedEventLoopGroup(Transport transport, EventLoopGroup group) {
+		this.transport = transport;
+		this.group = group;
+
+		int count = 0;
+
+		for(EventExecutor ignored : group) count++;
+
+		this.threads = count;
+	}
+
+	/**
+	 * Create a new SharedEventLoopGroup
+	 *
+	 * @param transport Transport
+	 * @param threads Amount of threads, 0 to use the Netty default
+	 * @param name Thread name prefix
+	 * @return SharedEventLoopGroup
+	 */
+	public static SharedEventLoopGroup create(Transport transport, int threads, String name) {
+		Transport resolved = transport.resolve();
+
+		return new SharedEventLoopGroup(resolved, resolved.newGroup(threads, name));
+	}
+
+	/**
+	 * Returns the transport the group was created for. Channels
+	 * registered to the group must use this transport.
+	 *
+	 * @return EPOLL or NIO
+	 */
+	public Transport transport() {
+		return transport;
+	}
+
+	/**
+	 * Returns the amount of threads in the group
+	 *
+	 * @return int
+	 */
+	public int threads() {
+		return threads;
+	}
+
+	/**
+	 * Returns the wrapped EventLoopGroup
+	 *
+	 * @return EventLoopGroup
+	 */
+	public EventLoopGroup group() {
+		return group;
+	}
+
+	@Override
+	public SharedEventLoopGroup retain() {
+		super.retain();
+		return this;
+	}
+
+	@Override
+	public ReferenceCounted touch(Object hint) {
+		return this;
+	}
+
+	@Override
+	protected void deallocate() {
+		group.shutdownGracefully();
+	}
+
+}
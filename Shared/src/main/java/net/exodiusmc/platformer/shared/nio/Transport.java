@@ -0,0 +1,93 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
+
+/**
+ * The socket transports a NetworkInstance can use
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public enum Transport {
+
+	/**
+	 * Use epoll when it is available, and NIO otherwise
+	 */
+	AUTO,
+
+	/**
+	 * Native, edge-triggered epoll transport. Only available on Linux.
+	 */
+	EPOLL,
+
+	/**
+	 * Java NIO transport, available everywhere
+	 */
+	NIO;
+
+	/**
+	 * Resolve the transport that will actually be used
+	 *
+	 * @return EPOLL or NIO
+	 * @throws NioNetworkException when epoll was requested but is not available
+	 */
+	public Transport resolve() {
+		switch(this) {
+			case AUTO:
+				return Epoll.isAvailable() ? EPOLL : NIO;
+
+			case EPOLL:
+				if(!Epoll.isAvailable()) {
+					throw new NioNetworkException("The epoll transport is not available", Epoll.unavailabilityCause());
+				}
+				return EPOLL;
+
+			default:
+				return NIO;
+		}
+	}
+
+	/**
+	 * Create a new EventLoopGroup for this transport
+	 *
+	 * @param threads Amount of threads, 0 to use the Netty default
+	 * @param name Thread name prefix
+	 * @return EventLoopGroup
+	 */
+	public EventLoopGroup newGroup(int threads, String name) {
+		DefaultThreadFactory factory = new DefaultThreadFactory(name);
+
+		return resolve() == EPOLL ? new EpollEventLoopGroup(threads, factory) : new NioEventLoopGroup(threads, factory);
+	}
+
+	/**
+	 * Returns the server channel class of this transport
+	 *
+	 * @return ServerSocketChannel class
+	 */
+	public Class<? extends ServerSocketChannel> serverChannel() {
+		return resolve() == EPOLL ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+	}
+
+	/**
+	 * Returns the client channel class of this transport
+	 *
+	 * @return SocketChannel class
+	 */
+	public Class<? extends SocketChannel> socketChannel() {
+		return resolve() == EPOLL ? EpollSocketChannel.class : NioSocketChannel.class;
+	}
+
+}
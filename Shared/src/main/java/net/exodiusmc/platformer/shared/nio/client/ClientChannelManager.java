@@ -3,11 +3,11 @@ package net.exodiusmc.platformer.shared.nio.client;
 import io.netty.channel.socket.SocketChannel;
 import net.exodiusmc.platformer.shared.nio.*;
 import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
 import net.exodiusmc.platformer.shared.nio.handler.PacketHandler;
 import net.exodiusmc.platformer.shared.nio.handler.PacketHandlerInterface;
 import net.exodiusmc.platformer.shared.nio.handler.PacketResponseHandler;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,37 +19,50 @@ import java.util.List;
  */
 public class ClientChannelManager extends ChannelManager {
 
-	private List<PacketListener> listeners;
+	private ListenerTable listeners;
 	private NetworkClient client;
 	private PacketConnection connection;
 
+	// Only accessed from the event loop
+	private byte[] resume_token = new byte[0];
+	private long session_received;
+	private boolean resumed;
+
 	/**
 	 * Create a new ChannelManager for the given NetworkInstance
 	 *
 	 * @param parent NetworkInstance
 	 */
 	ClientChannelManager(NetworkClient parent) {
-		super(parent, parent.builder.hooks, parent.builder.known_packets);
+		super(parent, parent.builder.hooks, parent.packets, parent.builder.settings);
 
-		this.listeners = new ArrayList<>();
+		this.listeners = new ListenerTable(parent.packets);
 		this.client = parent;
 
 		// Check for IdentitySuccess
-		subscribe(PacketSystemAuthenticationSuccess.class, (packet, conn) -> {
-			NioUtil.nettyLog(parent.logger(), "Successfully conected to NetworkServer as '" + parent.builder.identity + "'");
+		subscribe(PacketSystemAuthenticationSuccess.class, (_packet, conn) -> {
+			PacketSystemAuthenticationSuccess packet = (PacketSystemAuthenticationSuccess) _packet;
+
+			NioUtil.nettyLog(parent.logger(), "Successfully conected to NetworkServer as '" + parent.builder.identity + "'"
+				+ (packet.isResumed() ? " (Resumed session)" : ""));
+
+			// A new session counts from zero
+			if(!packet.isResumed()) session_received = 0;
+
+			resume_token = packet.getResumeToken();
+			resumed = packet.isResumed();
+
+			parent.resetBackoff();
 
 			// Mark connection as authenticated
 			ChannelManager.identifyConnection(connection, parent.builder.identity);
 
+			// Send what was spooled while we were away
+			parent.goOnline(connection);
+
 			// Call hook
 			callHook(HookType.AUTHENTICATION_ACCEPTED, connection);
 		});
-	}
-
-	@Override
-	public void setupChannel(SocketChannel channel) {
-		// Wrap the SocketChannel in a PacketConnection
-		this.connection = new PacketConnection(channel);
 
 		// Disconnect handling
 		subscribe(PacketSystemDisconnect.class, (_packet, con) -> {
@@ -60,6 +73,12 @@ public class ClientChannelManager extends ChannelManager {
 		});
 	}
 
+	@Override
+	public void setupChannel(SocketChannel channel) {
+		// Wrap the SocketChannel in a PacketConnection
+		this.connection = new PacketConnection(this, channel);
+	}
+
 	@Override
 	public void channelDisconnected(SocketChannel channel) {
 		PacketConnection conn = this.connection;
@@ -67,11 +86,19 @@ public class ClientChannelManager extends ChannelManager {
 		// Nullify the current channel
 		this.connection = null;
 
+		// Spool packets until we are identified again
+		client.goOffline();
+
+		// Remember how far we got, to resume the session
+		if(conn != null && conn.isAuthenticated()) {
+			session_received += conn.getReceivedPackets();
+		}
+
 		// Call hook
 		callHook(HookType.DISCONNECTED, conn);
 
 		// Reconnect
-		if(client.builder.reconnect) client.reconnect(channel);
+		if(client.builder.reconnect) client.reconnect();
 	}
 
 	/**
@@ -105,11 +132,13 @@ public class ClientChannelManager extends ChannelManager {
 	}
 
 	/**
-	 * Subscribe a listener of the specified arguments
+	 * Subscribe a listener of the specified arguments. A packet can have
+	 * only one response handler, since a request gets a single response.
 	 *
 	 * @param type Class<? extends Packet>
 	 * @param handler Listener
 	 * @return ServerPacketListener
+	 * @throws NioValidationException when a response handler is already subscribed to the packet
 	 */
 	public PacketListener subscribeRespondable(Class<? extends Packet> type, PacketResponseHandler handler) {
 		PacketListener listener = new PacketListener(type, handler);
@@ -120,11 +149,13 @@ public class ClientChannelManager extends ChannelManager {
 	}
 
 	/**
-	 * Subscribe a listener of the specified arguments
+	 * Subscribe a listener of the specified arguments. A packet can have
+	 * only one response handler, since a request gets a single response.
 	 *
 	 * @param types Packet Types
 	 * @param handler Handler
 	 * @return ServerPacketListener
+	 * @throws NioValidationException when a response handler is already subscribed to one of the packets
 	 */
 	public PacketListener subscribeRespondable(List<Class<? extends Packet>> types, PacketResponseHandler handler) {
 		PacketListener listener = new PacketListener(types, handler);
@@ -149,37 +180,44 @@ public class ClientChannelManager extends ChannelManager {
 	 * @param packet Packet
 	 */
 	public void triggerListeners(Packet packet) {
-		// Get the packet type
-		Class<? extends Packet> type = packet.getClass();
-
-		// Call listeners
-		for(PacketListener listener : listeners) {
-			if(listener.getSubscribed().contains(type)) {
-				PacketHandlerInterface handler = listener.getHandler();
-
-				if(handler instanceof PacketResponseHandler) {
-					// Validate - check if the inbound packet is
-					// actually a respondable packet
-					// if not, this means
-					if(!(packet instanceof RespondablePacket)) {
-						throw new NioNetworkException("Could not handle response: Inbound packet"
-						+ "is not a respondable packet");
-					}
-
-					// Cast fields to their respondable counterparts
-					RespondablePacket resp_packet = (RespondablePacket) packet;
-					PacketResponseHandler resp_handler = (PacketResponseHandler) handler;
-
-					// Handle the response by a seperate function
-					handleResponse(resp_packet, resp_handler);
+		PacketConnection origin = connection;
+
+		// Call every listener subscribed to the packet
+		for(PacketListener listener : listeners.get(packet)) {
+			if(listener.isOffloaded()) {
+				offload(origin, packet, () -> deliver(listener, packet, origin));
+			} else {
+				deliver(listener, packet, origin);
+			}
+		}
+	}
 
-					return;
-				}
+	/**
+	 * Call a single listener
+	 *
+	 * @param listener PacketListener
+	 * @param packet Packet
+	 * @param connection Connection the packet was received from
+	 */
+	private void deliver(PacketListener listener, Packet packet, PacketConnection connection) {
+		PacketHandlerInterface handler = listener.getHandler();
+
+		if(handler instanceof PacketResponseHandler) {
+			// Validate - check if the inbound packet is
+			// actually a respondable packet
+			if(!(packet instanceof RespondablePacket)) {
+				throw new NioNetworkException("Could not handle response: Inbound packet "
+					+ "is not a respondable packet");
+			}
 
-				((PacketHandler) handler).receive(packet, connection);
+			// Cast fields to their respondable counterparts
+			RespondablePacket resp_packet = (RespondablePacket) packet;
+			PacketResponseHandler resp_handler = (PacketResponseHandler) handler;
 
-				return;
-			}
+			// Handle the response by a separate function
+			handleResponse(resp_packet, resp_handler, connection);
+		} else {
+			((PacketHandler) handler).receive(packet, connection);
 		}
 	}
 
@@ -188,8 +226,9 @@ public class ClientChannelManager extends ChannelManager {
 	 *
 	 * @param packet RespondablePacket
 	 * @param handler Handler
+	 * @param connection Connection the packet was received from
 	 */
-	private void handleResponse(RespondablePacket packet, PacketResponseHandler handler) {
+	private void handleResponse(RespondablePacket packet, PacketResponseHandler handler, PacketConnection connection) {
 		// Generate a response
 		handler.receive(packet, connection);
 
@@ -200,6 +239,27 @@ public class ClientChannelManager extends ChannelManager {
 		connection.sendPacket(packet);
 	}
 
+	/**
+	 * Create the identification packet, which asks the server to
+	 * resume the previous session when there is one
+	 *
+	 * @return PacketSystemAuthentication
+	 */
+	PacketSystemAuthentication identification() {
+		return new PacketSystemAuthentication(client.builder.identity, client.builder.token, resume_token, session_received);
+	}
+
+	/**
+	 * Returns true when the last identification resumed the previous session,
+	 * in which case the packets missed while disconnected have been received.
+	 * When false, state that depends on those packets should be resynchronized.
+	 *
+	 * @return boolean
+	 */
+	public boolean isResumed() {
+		return resumed;
+	}
+
 	/**
 	 * Returns the PacketConnection that is currently active
 	 *
@@ -1,14 +1,17 @@
 package net.exodiusmc.platformer.shared.nio.client;
 
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.Channel;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import net.exodiusmc.platformer.shared.nio.*;
+import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
+import net.exodiusmc.platformer.shared.nio.pipeline.OutboundPacketEncoder;
 
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,15 +32,16 @@ import java.util.concurrent.TimeUnit;
  */
 public class NetworkClient extends NetworkInstance {
 
-	public static final int RETRY_DELAY = 5;
-
 	public EventLoopGroup group;
 
 	protected NetworkClientBuilder builder;
+	protected PacketRegistry packets;
 	protected boolean identified;
 
 	private ClientChannelManager manager;
 	private Bootstrap bootstrap;
+	private int attempts;
+	private OutboundSpool spool;
 
 	/**
 	 * Create a new Netty NetworkClient with the supplied logger
@@ -48,12 +52,26 @@ public class NetworkClient extends NetworkInstance {
 		super("NetworkClient", builder.logger);
 
 		this.builder = builder;
+		this.packets = builder.known_packets.build();
+
+		if(builder.spool_capacity > 0) {
+			this.spool = new OutboundSpool(builder.spool_capacity, builder.spool_policy);
+		}
 	}
 
 	@Override
 	protected void initialize() {
-		// Create the EventLoop groups
-		group = new NioEventLoopGroup();
+		Transport transport;
+
+		if(builder.shared_group != null) {
+			// Hold on to the shared group while running
+			transport = builder.shared_group.transport();
+			group = builder.shared_group.retain().group();
+		} else {
+			// Create the EventLoop groups
+			transport = builder.transport.resolve();
+			group = transport.newGroup(builder.threads, "transfer-client");
+		}
 
 		// Create and configure the Client bootstrap
 		// and create a new ServerChannelManager
@@ -61,10 +79,14 @@ public class NetworkClient extends NetworkInstance {
 		manager = new ClientChannelManager(this);
 
 		bootstrap.group(group)
-			.channel(NioSocketChannel.class)
+			.channel(transport.socketChannel())
 			.option(ChannelOption.TCP_NODELAY, true)
+			.option(ChannelOption.WRITE_BUFFER_WATER_MARK, builder.water_mark)
 			.handler(manager);
 
+		// Apply the options set through the builder
+		builder.options.forEach((option, value) -> bootstrap.option(NioUtil.rawOption(option), value));
+
 		// Connect to the server
 		connect();
 	}
@@ -77,10 +99,25 @@ public class NetworkClient extends NetworkInstance {
 		// Disconnect
 		disconnect();
 
+		// Drop whatever was never sent
+		if(spool != null) spool.clear();
+
 		// Unset the ChannelManager
+		manager.shutdown();
 		manager = null;
 
-		group.shutdownGracefully();
+		releaseGroup();
+	}
+
+	/**
+	 * Let go of the EventLoop group
+	 */
+	private void releaseGroup() {
+		if(builder.shared_group != null) {
+			builder.shared_group.release();
+		} else {
+			group.shutdownGracefully();
+		}
 	}
 
 	/**
@@ -105,10 +142,8 @@ public class NetworkClient extends NetworkInstance {
 				// Identify & Authenticate
 				NioUtil.nettyLog(logger(), "Authenticating...");
 
-				PacketSystemAuthentication identity = new PacketSystemAuthentication(
-					builder.identity,
-					builder.token
-				);
+				// Attempts to resume the previous session, if any
+				PacketSystemAuthentication identity = manager.identification();
 
 				// Call hook
 				manager.callHook(HookType.AUTHENTICATION, manager.connection());
@@ -126,20 +161,180 @@ public class NetworkClient extends NetworkInstance {
 				}
 			} else {
 				NioUtil.nettyLog(logger(), "** FAILED TO CONNECT **");
+
+				if(isActive()) {
+					// A reconnect attempt failed, try again after a longer delay
+					if(builder.reconnect) reconnect();
+				} else {
+					// Never connected, so stop() won't run: let go of the group here
+					releaseGroup();
+				}
 			}
 		});
 	}
 
 	/**
-	 * Reconnect to the server after the set amount of delay
+	 * Reconnect to the server after a random delay, which grows with
+	 * every failed attempt
+	 *
+	 * @see NetworkClientBuilder#reconnectBackoff(long, long, TimeUnit)
 	 */
-	protected void reconnect(Channel channel) {
+	protected void reconnect() {
+		// Don't reconnect a stopped client, its group may be shared
+		if(!isActive()) return;
+
 		// Call hook
 		manager.callHook(HookType.RECONNECT, manager.connection());
 
-		NioUtil.nettyLog(logger(), "Reconnecting in " + RETRY_DELAY + " seconds...");
+		long delay = nextBackoff();
+
+		NioUtil.nettyLog(logger(), "Reconnecting in " + delay + " ms...");
+
+		group.schedule(() -> {
+			if(isActive()) connect();
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the delay before the next reconnect attempt, using full
+	 * jitter: a random delay between 0 and the initial delay doubled once
+	 * per attempt, capped at the maximum delay
+	 *
+	 * @return Delay in milliseconds
+	 */
+	private long nextBackoff() {
+		long ceiling = builder.backoff_max;
+
+		// Double the initial delay per attempt, without overflowing
+		if(attempts < 62 && builder.backoff_initial <= builder.backoff_max >> attempts) {
+			ceiling = builder.backoff_initial << attempts;
+		}
+
+		attempts++;
+
+		return ThreadLocalRandom.current().nextLong(ceiling + 1);
+	}
+
+	/**
+	 * Start over with the initial reconnect delay,
+	 * called once the client is identified
+	 */
+	void resetBackoff() {
+		attempts = 0;
+	}
+
+	/**
+	 * Send a packet to the server and flush it. While the client is not
+	 * identified, for example because it is reconnecting, the packet is
+	 * encoded into the outbound spool and sent once the client is
+	 * identified again.
+	 * <br>
+	 * Requests can not be spooled, their response is awaited on
+	 * the connection they are sent over.
+	 *
+	 * @see NetworkClientBuilder#spool(int, OverflowPolicy)
+	 * @param packet Packet
+	 * @return false when the spool is full and the packet was dropped
+	 * @throws NioNetworkException when the packet can not be sent or spooled
+	 */
+	public boolean sendPacket(Packet packet) {
+		// Validate - Nullcheck
+		NioValidate.isNull(packet, "Packet cannot be null");
+
+		ClientChannelManager manager = this.manager;
 
-		channel.eventLoop().schedule(this::connect, RETRY_DELAY, TimeUnit.SECONDS);
+		if(manager == null) {
+			throw new NioNetworkException("Cannot send " + packet.getClass().getSimpleName()
+				+ " packet: NetworkClient is not running");
+		}
+
+		if(spool == null) {
+			PacketConnection connection = manager.connection();
+
+			if(connection == null) {
+				throw new NioNetworkException("Cannot send " + packet.getClass().getSimpleName()
+					+ " packet: NetworkClient is not connected");
+			}
+
+			connection.sendPacket(packet);
+			return true;
+		}
+
+		// Going on- or offline locks the spool as well, so
+		// spooled packets can never end up behind new ones
+		synchronized(spool) {
+			PacketConnection connection = manager.connection();
+			boolean online = spool.isOnline() && connection != null;
+
+			if(packet instanceof RespondablePacket && !((RespondablePacket) packet).isResponse()) {
+				// Validate - requests need a connection
+				if(!online) {
+					throw new NioNetworkException("Cannot spool request " + packet.getClass().getSimpleName()
+						+ ": NetworkClient is not identified");
+				}
+
+				connection.sendPacket(packet);
+				return true;
+			}
+
+			// Encode right away, so the frame can be put back
+			// in the spool when the connection closes first
+			ByteBuf frame = OutboundPacketEncoder.encodeFrame(manager, null, ByteBufAllocator.DEFAULT, packet);
+
+			if(frame == null) return false;
+
+			if(!online) return spool.offer(frame);
+
+			if(connection.channel().eventLoop().inEventLoop()) {
+				sendOrPutBack(connection, frame);
+			} else {
+				connection.channel().eventLoop().execute(() -> sendOrPutBack(connection, frame));
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * Write a frame to the connection, or put it back in the spool when
+	 * the connection closed in the meantime. Must be called from the
+	 * event loop of the connection.
+	 *
+	 * @param connection PacketConnection
+	 * @param frame Encoded frame
+	 */
+	private void sendOrPutBack(PacketConnection connection, ByteBuf frame) {
+		if(connection.channel().isActive()) {
+			connection.sendFrame(frame);
+		} else {
+			spool.putBack(frame);
+		}
+	}
+
+	/**
+	 * Send the spooled packets as a single burst, and send new packets
+	 * directly from now on. Called once the client is identified.
+	 *
+	 * @param connection Identified connection
+	 */
+	void goOnline(PacketConnection connection) {
+		if(spool == null) return;
+
+		List<ByteBuf> spooled = spool.goOnline();
+
+		if(spooled.isEmpty()) return;
+
+		NioUtil.nettyLog(logger(), "Sending " + spooled.size() + " spooled packets");
+
+		connection.sendFrames(spooled);
+	}
+
+	/**
+	 * Spool packets until the client is identified again.
+	 * Called when the connection closes.
+	 */
+	void goOffline() {
+		if(spool != null) spool.goOffline();
 	}
 
 	/**
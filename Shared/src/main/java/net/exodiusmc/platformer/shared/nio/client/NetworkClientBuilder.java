@@ -2,12 +2,18 @@ package net.exodiusmc.platformer.shared.nio.client;
 
 
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ListMultimap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
 import net.exodiusmc.platformer.shared.nio.*;
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
@@ -24,8 +30,18 @@ public class NetworkClientBuilder {
 	protected String identity;
 	protected char[] token = null;
 	protected boolean reconnect = false;
+	protected long backoff_initial = 1000;
+	protected long backoff_max = TimeUnit.SECONDS.toMillis(30);
+	protected int spool_capacity = 1024 * 1024;
+	protected OverflowPolicy spool_policy = OverflowPolicy.DROP_NEW;
 	protected Logger logger = null;
-	protected BiMap<Byte, Class<? extends Packet>> known_packets;
+	protected PacketRegistry.Builder known_packets;
+	protected ConnectionSettings settings = new ConnectionSettings();
+	protected WriteBufferWaterMark water_mark = WriteBufferWaterMark.DEFAULT;
+	protected Transport transport = Transport.AUTO;
+	protected int threads = 1;
+	protected SharedEventLoopGroup shared_group;
+	protected Map<ChannelOption<?>, Object> options = new LinkedHashMap<>();
 	protected ListMultimap<HookType, Consumer<PacketConnection>> hooks;
 
 	/**
@@ -40,12 +56,14 @@ public class NetworkClientBuilder {
 		this.port = port;
 		this.identity = identity;
 		this.hooks = ArrayListMultimap.create();
-		this.known_packets = HashBiMap.create();
+		this.known_packets = PacketRegistry.builder();
 
 		// Register system packets
-		packet(-3, PacketSystemAuthentication.class);
-		packet(-2, PacketSystemAuthenticationSuccess.class);
-		packet(-1, PacketSystemDisconnect.class);
+		packet(-5, PacketSystemPong.class, PacketSystemPong::new);
+		packet(-4, PacketSystemPing.class, PacketSystemPing::new);
+		packet(-3, PacketSystemAuthentication.class, PacketSystemAuthentication::new);
+		packet(-2, PacketSystemAuthenticationSuccess.class, PacketSystemAuthenticationSuccess::new);
+		packet(-1, PacketSystemDisconnect.class, PacketSystemDisconnect::new);
 	}
 
 	/**
@@ -77,9 +95,25 @@ public class NetworkClientBuilder {
 	 * @param id packet id
 	 * @param clazz packet class
 	 * @return self
+	 * @throws NioValidationException when the id or class is already registered
 	 */
 	public NetworkClientBuilder packet(int id, Class<? extends Packet> clazz) {
-		this.known_packets.put((byte) id, clazz);
+		this.known_packets.register(new PacketInfo(id, clazz));
+		return this;
+	}
+
+	/**
+	 * Register a new packet with the given id, class and factory
+	 * assigned, for example {@code packet(1, ChatSendPacket.class, ChatSendPacket::new)}
+	 *
+	 * @param id packet id
+	 * @param clazz packet class
+	 * @param factory packet factory
+	 * @return self
+	 * @throws NioValidationException when the id or class is already registered
+	 */
+	public <T extends Packet> NetworkClientBuilder packet(int id, Class<T> clazz, Supplier<T> factory) {
+		this.known_packets.register(new PacketInfo(id, clazz, factory));
 		return this;
 	}
 
@@ -91,11 +125,186 @@ public class NetworkClientBuilder {
 	 */
 	public NetworkClientBuilder packets(PacketInfo[] pinfos) {
 		for(PacketInfo pinfo : pinfos) {
-			this.known_packets.put(pinfo.getId(), pinfo.getPacketClass());
+			this.known_packets.register(pinfo);
 		}
 		return this;
 	}
 
+	/**
+	 * Set the max length of a frame in bytes, including its 4 byte length
+	 * prefix. Frames exceeding it are rejected by both the encoder and the
+	 * decoder, and the decoding side closes the connection. Both sides
+	 * should use the same limit. Defaults to 2 MB.
+	 *
+	 * @param length Max frame length in bytes
+	 * @return self
+	 */
+	public NetworkClientBuilder maxFrameLength(int length) {
+		this.settings.setMaxFrameLength(length);
+		return this;
+	}
+
+	/**
+	 * Set the policy used to consolidate flushes. By default
+	 * every packet is flushed as soon as it is sent.
+	 *
+	 * @param policy FlushPolicy
+	 * @return self
+	 */
+	public NetworkClientBuilder flushPolicy(FlushPolicy policy) {
+		this.settings.setFlushPolicy(policy);
+		return this;
+	}
+
+	/**
+	 * Set the write buffer watermarks of the channels. A channel stops
+	 * being writable once more than {@code high} bytes are waiting to be
+	 * written, and becomes writable again when it drops below {@code low}.
+	 *
+	 * @param low Low watermark in bytes
+	 * @param high High watermark in bytes
+	 * @return self
+	 */
+	public NetworkClientBuilder writeBufferWaterMark(int low, int high) {
+		this.water_mark = new WriteBufferWaterMark(low, high);
+		return this;
+	}
+
+	/**
+	 * Configure the queue in which packets wait while a channel is
+	 * not writable, and what happens when that queue is full
+	 *
+	 * @param limit Max amount of queued packets per connection
+	 * @param policy Overflow policy
+	 * @return self
+	 */
+	public NetworkClientBuilder pendingQueue(int limit, OverflowPolicy policy) {
+		this.settings.setPendingQueue(limit, policy);
+		return this;
+	}
+
+	/**
+	 * Set the time after which requests that have not been answered
+	 * expire. Defaults to 30 seconds.
+	 *
+	 * @param timeout Timeout
+	 * @param unit Time unit
+	 * @return self
+	 */
+	public NetworkClientBuilder responseTimeout(long timeout, TimeUnit unit) {
+		this.settings.setResponseTimeout(timeout, unit);
+		return this;
+	}
+
+	/**
+	 * Set the amount of requests a connection may await at once.
+	 * Further requests fail until responses arrive. Defaults to 1024.
+	 *
+	 * @param limit Max amount of requests in flight per connection
+	 * @return self
+	 */
+	public NetworkClientBuilder maxRequestsInFlight(int limit) {
+		this.settings.setMaxInFlight(limit);
+		return this;
+	}
+
+	/**
+	 * Configure the heartbeat. Both sides ping each other every interval, which
+	 * keeps idle connections alive and measures the round trip time. Connections
+	 * without inbound traffic for the read timeout, or that stay unwritable for the
+	 * write timeout, are closed. Defaults to a 10 second interval and 30 second timeouts.
+	 *
+	 * @param interval Time between pings, 0 to disable heartbeats
+	 * @param read_timeout Time without inbound traffic after which the connection is closed
+	 * @param write_timeout Time the connection may stay unwritable before it is closed
+	 * @param unit Time unit
+	 * @return self
+	 */
+	public NetworkClientBuilder heartbeat(long interval, long read_timeout, long write_timeout, TimeUnit unit) {
+		this.settings.setHeartbeat(interval, read_timeout, write_timeout, unit);
+		return this;
+	}
+
+	/**
+	 * Set the executor running listeners that are {@link PacketListener#offload() offloaded}.
+	 * Offloaded listeners of a single connection still run one at a time, in packet
+	 * order. On Java 21 and up, {@code Executors.newVirtualThreadPerTaskExecutor()}
+	 * can be used. The executor is not shut down by the NetworkInstance.
+	 * <br>
+	 * When not set, a pool with a daemon thread per core is created on first use.
+	 * Handlers that block for long, like database writes, can starve it. Those can
+	 * opt in to {@code Executors.newCachedThreadPool()}, at the cost of a thread
+	 * for every connection with a blocked handler.
+	 *
+	 * @param executor Executor
+	 * @return self
+	 */
+	public NetworkClientBuilder handlerExecutor(Executor executor) {
+		this.settings.setHandlerExecutor(executor);
+		return this;
+	}
+
+	/**
+	 * Set the socket transport. By default epoll is used when
+	 * available, with NIO as fallback.
+	 *
+	 * @param transport Transport
+	 * @return self
+	 */
+	public NetworkClientBuilder transport(Transport transport) {
+		NioValidate.isNull(transport, "Transport cannot be null");
+
+		this.transport = transport;
+		return this;
+	}
+
+	/**
+	 * Run the client on an externally owned event loop group, which may be
+	 * shared with other NetworkInstances. The client holds a reference to
+	 * the group while running, so stopping it or switching servers does not
+	 * start or stop any threads. The transport and thread count of the group
+	 * take precedence over the ones set on this builder.
+	 *
+	 * @param group Shared group
+	 * @return self
+	 */
+	public NetworkClientBuilder eventLoopGroup(SharedEventLoopGroup group) {
+		NioValidate.isNull(group, "Group cannot be null");
+
+		this.shared_group = group;
+		return this;
+	}
+
+	/**
+	 * Set the amount of I/O threads. A client only holds a single
+	 * connection, so this defaults to 1.
+	 *
+	 * @param threads Amount of threads
+	 * @return self
+	 */
+	public NetworkClientBuilder threads(int threads) {
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, threads, "Thread count must be at least 1");
+
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Set an option of the client channel. Options set here
+	 * override the defaults of the NetworkClient.
+	 *
+	 * @param option ChannelOption
+	 * @param value Option value
+	 * @param <T> Value type
+	 * @return self
+	 */
+	public <T> NetworkClientBuilder option(ChannelOption<T> option, T value) {
+		NioValidate.isNull(option, "Option cannot be null");
+
+		this.options.put(option, value);
+		return this;
+	}
+
 	/**
 	 * Register a new hook to listen for
 	 *
@@ -116,6 +325,51 @@ public class NetworkClientBuilder {
 		return this;
 	}
 
+	/**
+	 * Configure the delay between reconnect attempts. Every failed attempt
+	 * doubles the maximum delay, starting at {@code initial} and capped at
+	 * {@code max}. The actual delay is picked at random below the maximum,
+	 * so clients that lost the server at the same time don't reconnect at
+	 * the same time. Defaults to 1 second, capped at 30 seconds.
+	 *
+	 * @param initial Maximum delay of the first attempt
+	 * @param max Cap of the maximum delay
+	 * @param unit Time unit
+	 * @return self
+	 */
+	public NetworkClientBuilder reconnectBackoff(long initial, long max, TimeUnit unit) {
+		NioValidate.betweenInc(1, Long.MAX_VALUE, initial, "Initial backoff must be positive");
+		NioValidate.betweenInc(initial, Long.MAX_VALUE, max, "Max backoff cannot be lower than the initial backoff");
+
+		this.backoff_initial = unit.toMillis(initial);
+		this.backoff_max = unit.toMillis(max);
+		return this;
+	}
+
+	/**
+	 * Configure the outbound spool. Packets sent through {@link NetworkClient#sendPacket(Packet)}
+	 * while the client is not identified are encoded into the spool, and sent in a
+	 * single burst once the client is identified again. Defaults to 1 MiB, dropping
+	 * new packets when full.
+	 *
+	 * @param capacity Max amount of bytes spooled, 0 to disable spooling
+	 * @param policy Policy applied when the spool is full, DROP_OLDEST or DROP_NEW
+	 * @return self
+	 */
+	public NetworkClientBuilder spool(int capacity, OverflowPolicy policy) {
+		NioValidate.betweenInc(0, Integer.MAX_VALUE, capacity, "Spool capacity cannot be negative");
+		NioValidate.isNull(policy, "Overflow policy cannot be null");
+
+		// Validate - there is no connection to disconnect
+		if(policy == OverflowPolicy.DISCONNECT) {
+			throw new NioValidationException("The spool cannot use the DISCONNECT overflow policy");
+		}
+
+		this.spool_capacity = capacity;
+		this.spool_policy = policy;
+		return this;
+	}
+
 	/**
 	 * Use the configured settings to build a new NetworkClient
 	 *
@@ -0,0 +1,161 @@
+package net.exodiusmc.platformer.shared.nio.client;
+
+import io.netty.buffer.ByteBuf;
+import net.exodiusmc.platformer.shared.nio.OverflowPolicy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounded spool of encoded frames, holding the packets a NetworkClient sends
+ * while it is not connected. The frames are I/O buffers, so the spool lives
+ * off-heap where the platform supports it.
+ * <br>
+ * The spool is either offline, collecting frames, or online, in which case
+ * packets are sent straight to the connection. Going online hands out all
+ * collected frames at once. Frames that were on their way to a connection
+ * when it closed are put back in front of the frames spooled since.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+class OutboundSpool {
+
+	private final int capacity;
+	private final OverflowPolicy policy;
+
+	// Guarded by this
+	private final ArrayDeque<ByteBuf> returned = new ArrayDeque<>();
+	private final ArrayDeque<ByteBuf> frames = new ArrayDeque<>();
+	private int bytes;
+	private boolean online;
+
+	/**
+	 * Create a new OutboundSpool
+	 *
+	 * @param capacity Max amount of bytes spooled
+	 * @param policy Policy applied when the spool is full
+	 */
+	OutboundSpool(int capacity, OverflowPolicy policy) {
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+
+	/**
+	 * Returns true when packets can be sent to the connection directly
+	 *
+	 * @return boolean
+	 */
+	synchronized boolean isOnline() {
+		return online;
+	}
+
+	/**
+	 * Spool a frame. Ownership of the frame is transferred to this method.
+	 *
+	 * @param frame Encoded frame
+	 * @return false when the frame was dropped
+	 */
+	synchronized boolean offer(ByteBuf frame) {
+		return add(frames, frame);
+	}
+
+	/**
+	 * Put back a frame that could not be written because the connection
+	 * closed. Frames are expected to be returned in the order they were
+	 * sent, ownership of the frame is transferred to this method.
+	 *
+	 * @param frame Encoded frame
+	 * @return false when the frame was dropped, because the spool is full or already online again
+	 */
+	synchronized boolean putBack(ByteBuf frame) {
+		if(online) {
+			frame.release();
+			return false;
+		}
+
+		return add(returned, frame);
+	}
+
+	/**
+	 * Go online, handing out the spooled frames
+	 *
+	 * @return Spooled frames, in the order they were sent
+	 */
+	synchronized List<ByteBuf> goOnline() {
+		online = true;
+
+		if(returned.isEmpty() && frames.isEmpty()) return Collections.emptyList();
+
+		List<ByteBuf> spooled = new ArrayList<>(returned.size() + frames.size());
+
+		spooled.addAll(returned);
+		spooled.addAll(frames);
+
+		returned.clear();
+		frames.clear();
+		bytes = 0;
+
+		return spooled;
+	}
+
+	/**
+	 * Go offline, spooling packets until the next {@link #goOnline()}
+	 */
+	synchronized void goOffline() {
+		online = false;
+	}
+
+	/**
+	 * Release all spooled frames
+	 */
+	synchronized void clear() {
+		returned.forEach(ByteBuf::release);
+		frames.forEach(ByteBuf::release);
+
+		returned.clear();
+		frames.clear();
+		bytes = 0;
+		online = false;
+	}
+
+	/**
+	 * Add a frame to one of the queues, applying the overflow policy
+	 *
+	 * @param queue Queue
+	 * @param frame Encoded frame
+	 * @return false when the frame was dropped
+	 */
+	private boolean add(ArrayDeque<ByteBuf> queue, ByteBuf frame) {
+		int size = frame.readableBytes();
+
+		if(size > capacity) {
+			frame.release();
+			return false;
+		}
+
+		if(bytes + size > capacity) {
+			if(policy != OverflowPolicy.DROP_OLDEST) {
+				frame.release();
+				return false;
+			}
+
+			// Make room by dropping the oldest frames
+			while(bytes + size > capacity) {
+				ByteBuf oldest = returned.isEmpty() ? frames.poll() : returned.poll();
+
+				bytes -= oldest.readableBytes();
+				oldest.release();
+			}
+		}
+
+		queue.add(frame);
+		bytes += size;
+
+		return true;
+	}
+
+}
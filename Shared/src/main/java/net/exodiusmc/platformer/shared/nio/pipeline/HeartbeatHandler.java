@@ -0,0 +1,160 @@
+package net.exodiusmc.platformer.shared.nio.pipeline;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.concurrent.ScheduledFuture;
+import net.exodiusmc.platformer.shared.nio.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a {@link PacketSystemPing} every heartbeat interval, answers the pings of
+ * the remote side and feeds the measured round trip times to the connection.
+ * <br>
+ * Channels on which nothing was read for the read timeout, or that stayed
+ * unwritable for the write timeout, are disconnected. Reads only set a flag,
+ * the clock is checked once per heartbeat.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class HeartbeatHandler extends ChannelInboundHandlerAdapter {
+
+	private ChannelManager manager;
+	private long interval;
+	private long read_timeout;
+	private long write_timeout;
+
+	// Only accessed from the event loop of the channel
+	private ScheduledFuture<?> task;
+	private boolean read;
+	private long last_read;
+	private long unwritable_since;
+
+	/**
+	 * Create a new HeartbeatHandler
+	 *
+	 * @param manager ChannelManager
+	 * @param settings Connection settings
+	 */
+	public HeartbeatHandler(ChannelManager manager, ConnectionSettings settings) {
+		this.manager = manager;
+		this.interval = TimeUnit.MILLISECONDS.toNanos(settings.getHeartbeatInterval());
+		this.read_timeout = TimeUnit.MILLISECONDS.toNanos(settings.getReadTimeout());
+		this.write_timeout = TimeUnit.MILLISECONDS.toNanos(settings.getWriteTimeout());
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) {
+		if(ctx.channel().isActive()) start(ctx);
+	}
+
+	@Override
+	public void channelActive(ChannelHandlerContext ctx) throws Exception {
+		start(ctx);
+		super.channelActive(ctx);
+	}
+
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		stop();
+		super.channelInactive(ctx);
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) {
+		stop();
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		read = true;
+
+		if(msg instanceof PacketSystemPing) {
+			ctx.writeAndFlush(new PacketSystemPong(((PacketSystemPing) msg).getTimestamp()), ctx.voidPromise());
+			return;
+		}
+
+		if(msg instanceof PacketSystemPong) {
+			PacketConnection connection = manager.connection(ctx.channel());
+
+			if(connection != null) {
+				connection.recordRoundTrip(System.nanoTime() - ((PacketSystemPong) msg).getTimestamp());
+			}
+			return;
+		}
+
+		super.channelRead(ctx, msg);
+	}
+
+	/**
+	 * Start the heartbeat, unless it is already running
+	 *
+	 * @param ctx Context
+	 */
+	private void start(ChannelHandlerContext ctx) {
+		if(task != null) return;
+
+		last_read = System.nanoTime();
+		task = ctx.executor().scheduleAtFixedRate(() -> beat(ctx), interval, interval, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stop the heartbeat
+	 */
+	private void stop() {
+		if(task != null) {
+			task.cancel(false);
+			task = null;
+		}
+	}
+
+	/**
+	 * Check the timeouts and send a new ping
+	 *
+	 * @param ctx Context
+	 */
+	private void beat(ChannelHandlerContext ctx) {
+		long now = System.nanoTime();
+
+		if(read) {
+			read = false;
+			last_read = now;
+		}
+
+		if(ctx.channel().isWritable()) {
+			unwritable_since = 0;
+		} else if(unwritable_since == 0) {
+			unwritable_since = now;
+		}
+
+		if(now - last_read >= read_timeout) {
+			timeout(ctx, "Read timed out");
+			return;
+		}
+
+		if(unwritable_since != 0 && now - unwritable_since >= write_timeout) {
+			timeout(ctx, "Write timed out");
+			return;
+		}
+
+		ctx.writeAndFlush(new PacketSystemPing(now), ctx.voidPromise());
+	}
+
+	/**
+	 * Disconnect a channel that timed out
+	 *
+	 * @param ctx Context
+	 * @param reason Disconnect reason
+	 */
+	private void timeout(ChannelHandlerContext ctx, String reason) {
+		stop();
+
+		NioUtil.nettyLog(manager.getParent().logger(), "** Channel " + ctx.channel().id() + " disconnected: " + reason);
+
+		// The remote side is unresponsive, don't wait for a disconnect packet
+		ctx.channel().close();
+	}
+
+}
@@ -31,24 +31,32 @@ public class InboundPacketDecoder extends ByteToMessageDecoder {
 		// Read the packet type byte
 		byte id = buffer.readByte();
 
+		// Count the packet before decoding, a sender resuming a
+		// session counts every frame it has sent
+		PacketConnection connection = manager.connection(ctx.channel());
+
+		if(connection != null) connection.countReceived(id);
+
 		NioUtil.nettyLog(manager.getParent().logger(), "[PACKET] Received packet (size=" + buffer.readableBytes() + ",id=" + id + ")");
 
 		// Get the PacketType
-		Class<? extends Packet> type = manager.getPackets().get(id);
+		PacketInfo info = manager.getPackets().get(id);
 
 		// Validate - check if packet type is null
-		NioValidate.isNull(type, "[PACKET] Received unknown packet id '" + id +
+		NioValidate.isNull(info, "[PACKET] Received unknown packet id '" + id +
 		"'. Make sure this packet has been registered during NetworkInstance building.");
 
+		Class<? extends Packet> type = info.getPacketClass();
+
 		// Create the (empty) packet
-		Packet packet = Packet.create(type);
+		Packet packet = info.create();
 
 		// Validate - check if packet is null
 		NioValidate.isNull(packet, "Packet is null");
 
 		// Check if the packet is a respondable packet
 		if(packet instanceof RespondablePacket) {
-			byte resp_id = buffer.readByte();
+			long resp_id = NioUtil.readVarLong(buffer);
 			boolean response = buffer.readBoolean();
 
 			// Cast our packet to a RespondablePacket
@@ -82,7 +90,7 @@ public class InboundPacketDecoder extends ByteToMessageDecoder {
 
 		try {
 			// Log the exception
-			NioUtil.nettyLog(log, "[PA[SEVERE] Exception corrured during PacketDecoding " + e.getCause().getMessage()
+			NioUtil.nettyLog(log, "[PA[SEVERE] Exception corrured during PacketDecoding " + (e.getCause() != null ? e.getCause() : e).getMessage()
 				+ ". Closing channel " + ctx.channel().id());
 
 			// Close the channel
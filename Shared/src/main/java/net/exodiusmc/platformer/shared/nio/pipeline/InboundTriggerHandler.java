@@ -6,7 +6,6 @@ import net.exodiusmc.platformer.shared.nio.*;
 import net.exodiusmc.platformer.shared.nio.client.ClientChannelManager;
 import net.exodiusmc.platformer.shared.nio.server.ServerChannelManager;
 
-import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
@@ -28,6 +27,21 @@ public class InboundTriggerHandler extends ChannelInboundHandlerAdapter {
 	public void channelRead(ChannelHandlerContext ctx, Object msg) {
 		Packet packet = (Packet) msg;
 
+		try {
+			dispatch(ctx, packet);
+		} finally {
+			// Hand recyclable packets back to their pool
+			PacketPool.release(packet);
+		}
+	}
+
+	/**
+	 * Trigger the handlers for an inbound packet
+	 *
+	 * @param ctx Channel context
+	 * @param packet Packet
+	 */
+	private void dispatch(ChannelHandlerContext ctx, Packet packet) {
 		// RESPONDABLE PACKETS
 		if(packet instanceof RespondablePacket) {
 			RespondablePacket resp_packet = (RespondablePacket) packet;
@@ -36,7 +50,7 @@ public class InboundTriggerHandler extends ChannelInboundHandlerAdapter {
 			// actual respondable payload handlers are handled
 			// seperately in the ChannelManager classes.
 			if(resp_packet.isResponse()) {
-				handleResponse(resp_packet);
+				handleResponse(ctx, resp_packet);
 				return;
 			}
 		}
@@ -68,6 +82,18 @@ public class InboundTriggerHandler extends ChannelInboundHandlerAdapter {
 		}
 	}
 
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+		PacketConnection conn = manager.connection(ctx.channel());
+
+		// Write packets that queued up while we were not writable
+		if(conn != null && ctx.channel().isWritable()) {
+			conn.drainPending();
+		}
+
+		ctx.fireChannelWritabilityChanged();
+	}
+
 	@Override
 	public void exceptionCaught(ChannelHandlerContext ctx, Throwable e) {
 		Logger log = manager.getParent().logger();
@@ -83,12 +109,13 @@ public class InboundTriggerHandler extends ChannelInboundHandlerAdapter {
 	 *
 	 * @param packet RespondablePacket
 	 */
-	private void handleResponse(RespondablePacket packet) {
-		Consumer<Packet> handler = RespondablePacket.retrieveHandler(packet.getResponseId());
+	private void handleResponse(ChannelHandlerContext ctx, RespondablePacket packet) {
+		// Requests sent without a handler don't await their response
+		if(packet.getResponseId() == 0) return;
+
+		PacketConnection connection = manager.connection(ctx.channel());
 
-		if(handler != null) {
-			handler.accept(packet);
-		} else {
+		if(connection == null || !connection.completeResponse(packet)) {
 			NioUtil.nettyLog("** RECEIVED EXPIRED/UNRESOLVED PACKET RESPONSE **");
 		}
 	}
@@ -0,0 +1,148 @@
+package net.exodiusmc.platformer.shared.nio.pipeline;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import net.exodiusmc.platformer.shared.nio.FlushPolicy;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty channel handler that consolidates flushes according
+ * to a {@link FlushPolicy}. This handler should be the first
+ * handler in the pipeline, so it sees every flush and read.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class OutboundFlushHandler extends ChannelDuplexHandler {
+
+	private FlushPolicy policy;
+	private ChannelHandlerContext ctx;
+	private Runnable flush_task;
+	private Future<?> scheduled;
+
+	private int written;
+	private boolean flush_pending;
+	private boolean reading;
+
+	public OutboundFlushHandler(FlushPolicy policy) {
+		this.policy = policy;
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) {
+		this.ctx = ctx;
+		this.flush_task = () -> {
+			scheduled = null;
+
+			if(flush_pending) flushNow(this.ctx);
+		};
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+		written++;
+		ctx.write(msg, promise);
+	}
+
+	@Override
+	public void flush(ChannelHandlerContext ctx) {
+		flush_pending = true;
+
+		// Flush once enough packets are waiting
+		if(written >= policy.getMaxWrites()) {
+			flushNow(ctx);
+			return;
+		}
+
+		// Flushed when the read batch completes
+		if(reading && policy.isReadBatched()) return;
+
+		scheduleFlush(ctx);
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) {
+		reading = true;
+		ctx.fireChannelRead(msg);
+	}
+
+	@Override
+	public void channelReadComplete(ChannelHandlerContext ctx) {
+		reading = false;
+
+		if(flush_pending) flushNow(ctx);
+
+		ctx.fireChannelReadComplete();
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+		// Get the outbound buffer moving again
+		if(!ctx.channel().isWritable() && flush_pending) flushNow(ctx);
+
+		ctx.fireChannelWritabilityChanged();
+	}
+
+	@Override
+	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+		if(flush_pending) flushNow(ctx);
+
+		ctx.fireExceptionCaught(cause);
+	}
+
+	@Override
+	public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) {
+		if(flush_pending) flushNow(ctx);
+
+		ctx.disconnect(promise);
+	}
+
+	@Override
+	public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+		if(flush_pending) flushNow(ctx);
+
+		ctx.close(promise);
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) {
+		if(flush_pending) flushNow(ctx);
+	}
+
+	/**
+	 * Flush all pending packets
+	 *
+	 * @param ctx Channel context
+	 */
+	private void flushNow(ChannelHandlerContext ctx) {
+		if(scheduled != null) {
+			scheduled.cancel(false);
+			scheduled = null;
+		}
+
+		written = 0;
+		flush_pending = false;
+
+		ctx.flush();
+	}
+
+	/**
+	 * Make sure the pending packets are flushed eventually
+	 *
+	 * @param ctx Channel context
+	 */
+	private void scheduleFlush(ChannelHandlerContext ctx) {
+		if(scheduled != null) return;
+
+		if(policy.getDeadline() > 0) {
+			scheduled = ctx.channel().eventLoop().schedule(flush_task, policy.getDeadline(), TimeUnit.MICROSECONDS);
+		} else {
+			scheduled = ctx.channel().eventLoop().submit(flush_task);
+		}
+	}
+
+}
@@ -1,7 +1,7 @@
 package net.exodiusmc.platformer.shared.nio.pipeline;
 
-import com.google.common.collect.BiMap;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
@@ -24,27 +24,99 @@ public class OutboundPacketEncoder extends MessageToByteEncoder<Packet> {
 
 	@Override
 	protected void encode(ChannelHandlerContext ctx, Packet packet, ByteBuf buffer) throws Exception {
+		PacketConnection connection = null;
+
+		// Only requests need the connection, to register their response handler
+		if(packet instanceof RespondablePacket && !((RespondablePacket) packet).isResponse()) {
+			connection = manager.connection(ctx.channel());
+		}
+
+		int start = buffer.writerIndex();
+
+		// Reserve the length prefix, so every outbound
+		// message is a complete frame in a single buffer
+		buffer.writeInt(0);
+
+		if(!encodePacket(manager, connection, packet, buffer)) {
+			buffer.writerIndex(start);
+			return;
+		}
+
+		buffer.setInt(start, buffer.writerIndex() - start - 4);
+	}
+
+	/**
+	 * Encode a packet into a new frame, including the length prefix.
+	 * The frame is identical to what the pipeline would write for
+	 * the packet, and is allocated as an I/O buffer: off-heap when
+	 * the platform supports it.
+	 *
+	 * @param manager ChannelManager the packet is sent by
+	 * @param connection Connection the frame is meant for, only required for requests
+	 * @param alloc Allocator for the frame
+	 * @param packet Packet
+	 * @return Frame, or null when the packet is unknown
+	 */
+	public static ByteBuf encodeFrame(ChannelManager manager, PacketConnection connection, ByteBufAllocator alloc, Packet packet) {
+		ByteBuf frame = alloc.ioBuffer();
+
+		try {
+			// Reserve the length prefix
+			frame.writeInt(0);
+
+			if(!encodePacket(manager, connection, packet, frame)) {
+				frame.release();
+				return null;
+			}
+		} catch(RuntimeException ex) {
+			frame.release();
+			throw ex;
+		}
+
+		frame.setInt(0, frame.readableBytes() - 4);
+
+		return frame;
+	}
+
+	/**
+	 * Encode a packet, including its id and response meta data, onto
+	 * the given buffer. This is used by the pipeline, but can also be
+	 * used to encode a packet once for multiple channels.
+	 *
+	 * @param manager ChannelManager the packet is sent by
+	 * @param connection Connection the packet is meant for, only required for requests
+	 * @param packet Packet
+	 * @param buffer Buffer
+	 * @return false when the packet is unknown and nothing was written
+	 */
+	public static boolean encodePacket(ChannelManager manager, PacketConnection connection, Packet packet, ByteBuf buffer) {
+		int start = buffer.writerIndex();
+
 		// Validate - check if packet type is null
 		NioValidate.isNull(packet, "Cannot send null packet");
 
-		// Get a ref to all packets and their ids
-		BiMap<Class<? extends Packet>, Byte> packets = manager.getPackets().inverse();
+		// Validate - check if a pooled packet is still valid
+		packet.checkReleased();
 
-		Class<? extends Packet> clazz = packet.getClass();
+		// Look up the registered packet
+		PacketInfo info = manager.getPackets().get(packet.getClass());
 
 		// Validate - check if id is null
-		if(NioValidate.isNull(packets.get(clazz))) {
+		if(NioValidate.isNull(info)) {
 			NioUtil.nettyLog("[WARNING] Attempted to send unknown packet '" + packet.getClass().getSimpleName() +
 				". Make sure this packet has been registered during NetworkInstance building.");
-			return;
+			return false;
 		}
 
 		// Get the packet id
-		byte id = packets.get(clazz);
+		byte id = info.getId();
 
 		// Write the packet type to the buffer
 		buffer.writeByte(id);
 
+		// Response id of a request, 0 when nothing awaits a response
+		long resp_id = 0;
+
 		// Check if the packet is a respondable packet
 		if(packet instanceof RespondablePacket) {
 			RespondablePacket respondable = (RespondablePacket) packet;
@@ -52,7 +124,7 @@ public class OutboundPacketEncoder extends MessageToByteEncoder<Packet> {
 			// Check if this packet is a response
 			if(respondable.isResponse()) {
 				// Write the response id
-				buffer.writeByte(respondable.getResponseId());
+				NioUtil.writeVarLong(buffer, respondable.getResponseId());
 
 				// Mark this request
 				buffer.writeBoolean(true);
@@ -60,33 +132,78 @@ public class OutboundPacketEncoder extends MessageToByteEncoder<Packet> {
 				// Encode the packet as response
 				respondable.encodeResponse(buffer);
 
+				checkFrameLength(manager, packet, buffer, start);
+
 				NioUtil.nettyLog(manager.getParent().logger(), "[PACKET] Sending response packet (" + packet.getClass().getSimpleName() + ")");
 
 
-				return; // <-- We are done encoding
+				return true; // <-- We are done encoding
 			} else {
-				// Write the response id
-				byte resp_id = ++RespondablePacket.RESPONSE_ID;
+				// Validate - requests are correlated per connection
+				if(NioValidate.isNull(connection)) {
+					throw new NioNetworkException("Cannot send request " + packet.getClass().getSimpleName()
+						+ " without a connection to await the response on");
+				}
 
-				buffer.writeByte(resp_id);
+				// Store the handler and write the response id
+				resp_id = connection.registerResponse(respondable);
+
+				NioUtil.writeVarLong(buffer, resp_id);
 
 				// Mark this request
 				buffer.writeBoolean(false);
-
-				// Store the handler
-				RespondablePacket.storeHandler(resp_id, respondable.getResponseHandler());
 			}
 		}
 
-		// Try to ncode the packet
 		try {
-			packet.encodePayload(buffer);
+			encodePayload(packet, buffer);
+			checkFrameLength(manager, packet, buffer, start);
+		} catch(RuntimeException ex) {
+			// The request is never sent, fail it now instead of letting it time out
+			if(resp_id != 0) connection.cancelResponse(resp_id, ex);
+
+			throw ex;
+		}
+
+		NioUtil.nettyLog(manager.getParent().logger(), "[PACKET] Sending " + packet.getClass().getSimpleName() + " packet (size=" + (buffer.writerIndex() - start - 1) + ",id=" + id + ")");
 
-			NioUtil.nettyLog(manager.getParent().logger(), "[PACKET] Sending " + packet.getClass().getSimpleName() + " packet (size=" + (buffer.readableBytes() - 1) + ",id=" + id + ")");
+		return true;
+	}
+
+	/**
+	 * Encode the payload of a packet onto the given buffer
+	 *
+	 * @param packet Packet
+	 * @param buffer Buffer
+	 */
+	private static void encodePayload(Packet packet, ByteBuf buffer) {
+		// Try to encode the packet
+		try {
+			packet.encodePayload(buffer);
 		} catch(NullPointerException ex) {
 			throw new NioNetworkException("Encountered null field whilst encoding payload for "
 				+ packet.getClass().getSimpleName() + " packet. This might be caused by a packet"
-				+ " being initialized with an empty constructor (This should be avoided).");
+				+ " being initialized with an empty constructor (This should be avoided).", ex);
+		}
+	}
+
+	/**
+	 * Make sure an encoded packet fits in a single frame
+	 *
+	 * @param manager ChannelManager the packet is sent by
+	 * @param packet Packet
+	 * @param buffer Buffer
+	 * @param start Index the packet was encoded from
+	 */
+	private static void checkFrameLength(ChannelManager manager, Packet packet, ByteBuf buffer, int start) {
+		// Validate - the peer rejects frames over the max length, length prefix included
+		int length = buffer.writerIndex() - start + 4;
+
+		if(length > manager.getSettings().getMaxFrameLength()) {
+			buffer.writerIndex(start);
+
+			throw new NioNetworkException("Cannot send " + packet.getClass().getSimpleName() + " packet: Frame of "
+				+ length + " bytes exceeds the max frame length of " + manager.getSettings().getMaxFrameLength() + " bytes");
 		}
 	}
 
@@ -0,0 +1,232 @@
+package net.exodiusmc.platformer.shared.nio.server;
+
+import io.netty.channel.EventLoop;
+import net.exodiusmc.platformer.shared.nio.PacketConnection;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe registry of the identified connections of a NetworkServer.
+ * Connections are indexed by name, and sharded by the event loop they
+ * live on so broadcasts can hand every loop its own connections.
+ * <br>
+ * Shards hand out array snapshots, iterating them does not allocate or
+ * lock. Adding and removing connections takes constant time, a new
+ * snapshot is only built when one is asked for after a change, so a
+ * storm of connects or disconnects costs a single copy.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class ConnectionRegistry {
+
+	private static final PacketConnection[] EMPTY = new PacketConnection[0];
+
+	private final ConcurrentMap<String, PacketConnection> by_name = new ConcurrentHashMap<>();
+	private volatile Shard[] shards = new Shard[0];
+
+	/**
+	 * Claim an identity for the given connection. Only one of multiple
+	 * connections claiming the same identity at once will succeed.
+	 *
+	 * @param name Identity
+	 * @param conn PacketConnection
+	 * @return false when the identity is already taken
+	 */
+	public boolean claim(String name, PacketConnection conn) {
+		if(by_name.putIfAbsent(name, conn) != null) return false;
+
+		shard(conn.channel().eventLoop()).add(conn);
+
+		return true;
+	}
+
+	/**
+	 * Remove a connection from the registry
+	 *
+	 * @param conn PacketConnection
+	 * @return false when the connection was not registered
+	 */
+	public boolean release(PacketConnection conn) {
+		if(!by_name.remove(conn.getName(), conn)) return false;
+
+		shard(conn.channel().eventLoop()).remove(conn);
+
+		return true;
+	}
+
+	/**
+	 * Free the identity of a connection, but keep the connection in its
+	 * shard. Broadcasts keep reaching the closed connection on its own event
+	 * loop, so a resumable session can record what it misses in order.
+	 *
+	 * @param conn PacketConnection
+	 * @return false when the connection was not registered
+	 */
+	public boolean retire(PacketConnection conn) {
+		return by_name.remove(conn.getName(), conn);
+	}
+
+	/**
+	 * Remove a retired connection from its shard
+	 *
+	 * @param conn PacketConnection
+	 */
+	public void evict(PacketConnection conn) {
+		shard(conn.channel().eventLoop()).remove(conn);
+	}
+
+	/**
+	 * Returns the connection with the given name
+	 *
+	 * @param name Name
+	 * @return PacketConnection, or null when not connected
+	 */
+	public PacketConnection get(String name) {
+		return by_name.get(name);
+	}
+
+	/**
+	 * Returns the amount of registered connections
+	 *
+	 * @return int
+	 */
+	public int size() {
+		return by_name.size();
+	}
+
+	/**
+	 * Returns a live, unmodifiable view of all connections
+	 *
+	 * @return Connection collection
+	 */
+	public Collection<PacketConnection> all() {
+		return Collections.unmodifiableCollection(by_name.values());
+	}
+
+	/**
+	 * Returns a snapshot of the shards, one for every event loop
+	 * that has had connections. The array must not be modified.
+	 *
+	 * @return Shard array
+	 */
+	public Shard[] shards() {
+		return shards;
+	}
+
+	/**
+	 * Returns the shard of the given event loop, creating it when needed
+	 *
+	 * @param loop EventLoop
+	 * @return Shard
+	 */
+	private Shard shard(EventLoop loop) {
+		Shard[] current = shards;
+
+		for(Shard shard : current) {
+			if(shard.loop == loop) return shard;
+		}
+
+		synchronized(this) {
+			for(Shard shard : shards) {
+				if(shard.loop == loop) return shard;
+			}
+
+			Shard shard = new Shard(loop);
+			Shard[] grown = Arrays.copyOf(shards, shards.length + 1);
+
+			grown[grown.length - 1] = shard;
+			shards = grown;
+
+			return shard;
+		}
+	}
+
+	/**
+	 * Connections living on a single event loop
+	 */
+	public static final class Shard {
+
+		private final EventLoop loop;
+		private final Map<PacketConnection, Integer> index = new IdentityHashMap<>();
+		private PacketConnection[] list = new PacketConnection[16];
+		private int size;
+		private volatile PacketConnection[] members = EMPTY;
+
+		private Shard(EventLoop loop) {
+			this.loop = loop;
+		}
+
+		/**
+		 * Returns the event loop of this shard
+		 *
+		 * @return EventLoop
+		 */
+		public EventLoop loop() {
+			return loop;
+		}
+
+		/**
+		 * Returns a snapshot of the connections in this shard.
+		 * The array must not be modified.
+		 *
+		 * @return PacketConnection array
+		 */
+		public PacketConnection[] members() {
+			PacketConnection[] current = members;
+
+			return current != null ? current : snapshot();
+		}
+
+		/**
+		 * Build a snapshot after the shard changed
+		 *
+		 * @return PacketConnection array
+		 */
+		private synchronized PacketConnection[] snapshot() {
+			if(members == null) {
+				members = size == 0 ? EMPTY : Arrays.copyOf(list, size);
+			}
+
+			return members;
+		}
+
+		private synchronized void add(PacketConnection conn) {
+			if(index.containsKey(conn)) return;
+
+			if(size == list.length) {
+				list = Arrays.copyOf(list, size * 2);
+			}
+
+			index.put(conn, size);
+			list[size++] = conn;
+			members = null;
+		}
+
+		private synchronized void remove(PacketConnection conn) {
+			Integer slot = index.remove(conn);
+
+			if(slot == null) return;
+
+			// Move the last connection into the freed slot
+			PacketConnection last = list[--size];
+
+			list[size] = null;
+
+			if(last != conn) {
+				list[slot] = last;
+				index.put(last, slot);
+			}
+
+			members = null;
+		}
+	}
+
+}
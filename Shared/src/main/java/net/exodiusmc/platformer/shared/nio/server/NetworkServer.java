@@ -1,13 +1,17 @@
 package net.exodiusmc.platformer.shared.nio.server;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.epoll.EpollChannelOption;
 import net.exodiusmc.platformer.shared.nio.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * The NetworkServer class extends {@link NetworkInstance (Logger)}, and is used to handle
  * server-side Netty connections. In the case of Exodius, the NetworkServer is run on
@@ -24,14 +28,16 @@ import net.exodiusmc.platformer.shared.nio.*;
 public class NetworkServer extends NetworkInstance {
 	
 	public static final int IDENTITY_TIMEOUT = 20 ;
-	public static final int FIXED_MAX_PENDING_CONNECTIONS = 25;
+	public static final int DEFAULT_BACKLOG = 1024;
 	public static final int DEFAULT_NETTY_PORT = 25560;
 
 	protected NetworkServerBuilder builder;
+	protected PacketRegistry packets;
 
 	private ServerChannelManager manager;
 	private EventLoopGroup boss;
 	private EventLoopGroup worker;
+	private List<Channel> channels;
 
 	/**
 	 * Create a new Netty NetworkServer with the supplied logger
@@ -42,6 +48,7 @@ public class NetworkServer extends NetworkInstance {
 		super("NetworkServer", builder.logger);
 
 		this.builder = builder;
+		this.packets = builder.known_packets.build();
 	}
 
 	/**
@@ -51,36 +58,82 @@ public class NetworkServer extends NetworkInstance {
 	 */
 	@Override
 	public void initialize() {
-		// Create the EventLoop groups
-		boss = new NioEventLoopGroup();
-		worker = new NioEventLoopGroup();
+		Transport transport = builder.shared_boss != null ? builder.shared_boss.transport() : builder.transport.resolve();
+		int acceptors = builder.acceptors;
+
+		// SO_REUSEPORT is only exposed by the epoll transport
+		if(acceptors > 1 && transport != Transport.EPOLL) {
+			NioUtil.nettyLog(logger(), "[WARNING] Multiple acceptors require the epoll transport, binding a single channel");
+			acceptors = 1;
+		}
+
+		// Every acceptor needs its own boss thread, a shared boss group can't grow
+		if(builder.shared_boss != null && acceptors > builder.shared_boss.threads()) {
+			NioUtil.nettyLog(logger(), "[WARNING] The shared boss group has only " + builder.shared_boss.threads()
+				+ " threads, binding " + builder.shared_boss.threads() + " acceptors instead of " + acceptors);
+			acceptors = builder.shared_boss.threads();
+		}
+
+		if(builder.shared_boss != null) {
+			// Hold on to the shared groups while running
+			boss = builder.shared_boss.retain().group();
+			worker = builder.shared_worker.retain().group();
+		} else {
+			// Create the EventLoop groups, every acceptor gets its own boss thread
+			boss = transport.newGroup(Math.max(builder.boss_threads, acceptors), "transfer-server-boss");
+			worker = transport.newGroup(builder.worker_threads, "transfer-server-worker");
+		}
 		
 		// Create and configure the Server bootstrap
 		ServerBootstrap bootstrap = new ServerBootstrap();
 		manager = new ServerChannelManager(this);
 		
 		bootstrap.group(boss, worker)
-			.channel(NioServerSocketChannel.class)
-			.option(ChannelOption.SO_BACKLOG, FIXED_MAX_PENDING_CONNECTIONS)
-			.option(ChannelOption.TCP_NODELAY, true)
+			.channel(transport.serverChannel())
+			.option(ChannelOption.SO_BACKLOG, builder.backlog)
+			.childOption(ChannelOption.TCP_NODELAY, true)
 			.childOption(ChannelOption.SO_KEEPALIVE, true)
+			.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, builder.water_mark)
 			.childHandler(manager);
-		
-		// Attempt to bind to the port
-		bootstrap.bind(builder.port).addListener((ChannelFuture future) -> {
-			if(future.isSuccess()) {
-				NioUtil.nettyLog(logger(), "NetworkServer is now successfully listening on port " + builder.port + " (Using auth: " + (builder.token == null ? "No" : "Yes") + ")");
-
-				// Mark the Netty instance as active
-				setActive(true);
-			} else {
-				NioUtil.nettyLog(logger(), "** FAILED TO START THE NETWORK SERVER **");
-				NioUtil.nettyLog(logger(), "** NetworkServer failed to bind to port " + builder.port + " **");
-
-				// We couldn't bind, so shutdown
-				stop();
-			}
-		});
+
+		if(acceptors > 1) {
+			bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+		}
+
+		// Apply the options set through the builder
+		builder.options.forEach((option, value) -> bootstrap.option(NioUtil.rawOption(option), value));
+		builder.child_options.forEach((option, value) -> bootstrap.childOption(NioUtil.rawOption(option), value));
+
+		int expected = acceptors;
+		AtomicInteger bound = new AtomicInteger();
+
+		channels = new ArrayList<>(acceptors);
+
+		// Attempt to bind to the port, every bind registers on the next boss thread
+		for(int i = 0; i < acceptors; i++) {
+			ChannelFuture bind = bootstrap.bind(builder.port);
+
+			channels.add(bind.channel());
+
+			bind.addListener((ChannelFuture future) -> {
+				if(future.isSuccess()) {
+					if(bound.incrementAndGet() < expected) return;
+
+					NioUtil.nettyLog(logger(), "NetworkServer is now successfully listening on port " + builder.port + " (Transport: " + transport
+						+ ", Acceptors: " + expected + ", Using auth: " + (builder.token == null ? "No" : "Yes") + ")");
+
+					// Mark the Netty instance as active
+					setActive(true);
+				} else if(bound.getAndSet(Integer.MIN_VALUE) >= 0) {
+					NioUtil.nettyLog(logger(), "** FAILED TO START THE NETWORK SERVER **");
+					NioUtil.nettyLog(logger(), "** NetworkServer failed to bind to port " + builder.port + " **");
+
+					// We couldn't bind and never became active, so stop()
+					// won't run: release the channels and groups right here
+					releaseGroups();
+				}
+			});
+		}
 	}
 
 	@Override
@@ -89,10 +142,26 @@ public class NetworkServer extends NetworkInstance {
 		manager.callHook(HookType.SHUTDOWN, null);
 
 		// Unset the ChannelManager
+		manager.shutdown();
 		manager = null;
 
-		boss.shutdownGracefully();
-		worker.shutdownGracefully();
+		releaseGroups();
+	}
+
+	/**
+	 * Close the server channels and let go of the EventLoop groups
+	 */
+	private void releaseGroups() {
+		if(builder.shared_boss != null) {
+			// Shared groups live on, only the server channels are closed
+			channels.forEach(Channel::close);
+
+			builder.shared_boss.release();
+			builder.shared_worker.release();
+		} else {
+			boss.shutdownGracefully();
+			worker.shutdownGracefully();
+		}
 	}
 
 	/**
@@ -113,6 +182,16 @@ public class NetworkServer extends NetworkInstance {
 		return manager;
 	}
 
+	/**
+	 * Returns the EventLoopGroup the connections live on, or null
+	 * when the NetworkServer was not started
+	 *
+	 * @return EventLoopGroup
+	 */
+	public EventLoopGroup workerGroup() {
+		return worker;
+	}
+
 	/**
 	 * Create a new NetworkClientBuilder
 	 *
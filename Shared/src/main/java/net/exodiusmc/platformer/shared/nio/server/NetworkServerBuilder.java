@@ -2,12 +2,18 @@ package net.exodiusmc.platformer.shared.nio.server;
 
 
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ListMultimap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
 import net.exodiusmc.platformer.shared.nio.*;
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
@@ -22,7 +28,20 @@ public class NetworkServerBuilder {
 	protected int port;
 	protected char[] token = null;
 	protected Logger logger = null;
-	protected BiMap<Byte, Class<? extends Packet>> known_packets;
+	protected PacketRegistry.Builder known_packets;
+	protected ConnectionSettings settings = new ConnectionSettings();
+	protected WriteBufferWaterMark water_mark = WriteBufferWaterMark.DEFAULT;
+	protected Transport transport = Transport.AUTO;
+	protected int boss_threads = 1;
+	protected int worker_threads = 0;
+	protected int backlog = NetworkServer.DEFAULT_BACKLOG;
+	protected int acceptors = 1;
+	protected long resume_window = 0;
+	protected int resume_buffer = 0;
+	protected SharedEventLoopGroup shared_boss;
+	protected SharedEventLoopGroup shared_worker;
+	protected Map<ChannelOption<?>, Object> options = new LinkedHashMap<>();
+	protected Map<ChannelOption<?>, Object> child_options = new LinkedHashMap<>();
 	protected ListMultimap<HookType, Consumer<PacketConnection>> hooks;
 
 	/**
@@ -33,12 +52,14 @@ public class NetworkServerBuilder {
 	protected NetworkServerBuilder(int port) {
 		this.port = port;
 		this.hooks = ArrayListMultimap.create();
-		this.known_packets = HashBiMap.create();
+		this.known_packets = PacketRegistry.builder();
 
 		// Register system packets
-		packet(-3, PacketSystemAuthentication.class);
-		packet(-2, PacketSystemAuthenticationSuccess.class);
-		packet(-1, PacketSystemDisconnect.class);
+		packet(-5, PacketSystemPong.class, PacketSystemPong::new);
+		packet(-4, PacketSystemPing.class, PacketSystemPing::new);
+		packet(-3, PacketSystemAuthentication.class, PacketSystemAuthentication::new);
+		packet(-2, PacketSystemAuthenticationSuccess.class, PacketSystemAuthenticationSuccess::new);
+		packet(-1, PacketSystemDisconnect.class, PacketSystemDisconnect::new);
 	}
 
 	/**
@@ -69,9 +90,25 @@ public class NetworkServerBuilder {
 	 * @param id packet id
 	 * @param clazz packet class
 	 * @return self
+	 * @throws NioValidationException when the id or class is already registered
 	 */
 	public NetworkServerBuilder packet(int id, Class<? extends Packet> clazz) {
-		this.known_packets.put((byte) id, clazz);
+		this.known_packets.register(new PacketInfo(id, clazz));
+		return this;
+	}
+
+	/**
+	 * Register a new packet with the given id, class and factory
+	 * assigned, for example {@code packet(1, ChatSendPacket.class, ChatSendPacket::new)}
+	 *
+	 * @param id packet id
+	 * @param clazz packet class
+	 * @param factory packet factory
+	 * @return self
+	 * @throws NioValidationException when the id or class is already registered
+	 */
+	public <T extends Packet> NetworkServerBuilder packet(int id, Class<T> clazz, Supplier<T> factory) {
+		this.known_packets.register(new PacketInfo(id, clazz, factory));
 		return this;
 	}
 
@@ -83,11 +120,291 @@ public class NetworkServerBuilder {
 	 */
 	public NetworkServerBuilder packets(PacketInfo[] pinfos) {
 		for(PacketInfo pinfo : pinfos) {
-			this.known_packets.put(pinfo.getId(), pinfo.getPacketClass());
+			this.known_packets.register(pinfo);
 		}
 		return this;
 	}
 
+	/**
+	 * Set the max length of a frame in bytes, including its 4 byte length
+	 * prefix. Frames exceeding it are rejected by both the encoder and the
+	 * decoder, and the decoding side closes the connection. Both sides
+	 * should use the same limit. Defaults to 2 MB.
+	 *
+	 * @param length Max frame length in bytes
+	 * @return self
+	 */
+	public NetworkServerBuilder maxFrameLength(int length) {
+		this.settings.setMaxFrameLength(length);
+		return this;
+	}
+
+	/**
+	 * Set the policy used to consolidate flushes. By default
+	 * every packet is flushed as soon as it is sent.
+	 *
+	 * @param policy FlushPolicy
+	 * @return self
+	 */
+	public NetworkServerBuilder flushPolicy(FlushPolicy policy) {
+		this.settings.setFlushPolicy(policy);
+		return this;
+	}
+
+	/**
+	 * Set the write buffer watermarks of the channels. A channel stops
+	 * being writable once more than {@code high} bytes are waiting to be
+	 * written, and becomes writable again when it drops below {@code low}.
+	 *
+	 * @param low Low watermark in bytes
+	 * @param high High watermark in bytes
+	 * @return self
+	 */
+	public NetworkServerBuilder writeBufferWaterMark(int low, int high) {
+		this.water_mark = new WriteBufferWaterMark(low, high);
+		return this;
+	}
+
+	/**
+	 * Configure the queue in which packets wait while a channel is
+	 * not writable, and what happens when that queue is full
+	 *
+	 * @param limit Max amount of queued packets per connection
+	 * @param policy Overflow policy
+	 * @return self
+	 */
+	public NetworkServerBuilder pendingQueue(int limit, OverflowPolicy policy) {
+		this.settings.setPendingQueue(limit, policy);
+		return this;
+	}
+
+	/**
+	 * Set the time after which requests that have not been answered
+	 * expire. Defaults to 30 seconds.
+	 *
+	 * @param timeout Timeout
+	 * @param unit Time unit
+	 * @return self
+	 */
+	public NetworkServerBuilder responseTimeout(long timeout, TimeUnit unit) {
+		this.settings.setResponseTimeout(timeout, unit);
+		return this;
+	}
+
+	/**
+	 * Set the amount of requests a connection may await at once.
+	 * Further requests fail until responses arrive. Defaults to 1024.
+	 *
+	 * @param limit Max amount of requests in flight per connection
+	 * @return self
+	 */
+	public NetworkServerBuilder maxRequestsInFlight(int limit) {
+		this.settings.setMaxInFlight(limit);
+		return this;
+	}
+
+	/**
+	 * Configure the heartbeat. Both sides ping each other every interval, which
+	 * keeps idle connections alive and measures the round trip time. Connections
+	 * without inbound traffic for the read timeout, or that stay unwritable for the
+	 * write timeout, are closed. Defaults to a 10 second interval and 30 second timeouts.
+	 *
+	 * @param interval Time between pings, 0 to disable heartbeats
+	 * @param read_timeout Time without inbound traffic after which the connection is closed
+	 * @param write_timeout Time the connection may stay unwritable before it is closed
+	 * @param unit Time unit
+	 * @return self
+	 */
+	public NetworkServerBuilder heartbeat(long interval, long read_timeout, long write_timeout, TimeUnit unit) {
+		this.settings.setHeartbeat(interval, read_timeout, write_timeout, unit);
+		return this;
+	}
+
+	/**
+	 * Let clients resume their session after reconnecting. The server keeps
+	 * the last packets sent to every client, and keeps broadcasting to the
+	 * session of a disconnected client for the resume window. A client that
+	 * reconnects in time only receives the packets it missed, instead of
+	 * having to resynchronize. Packets sent to a single connection while it
+	 * is disconnected are not kept.
+	 * <br>
+	 * Every session holds on to up to {@code buffer} encoded packets.
+	 * Disabled by default.
+	 *
+	 * @param window Time a disconnected session is kept
+	 * @param buffer Amount of packets kept per session
+	 * @param unit Time unit
+	 * @return self
+	 */
+	public NetworkServerBuilder resumeSessions(long window, int buffer, TimeUnit unit) {
+		NioValidate.betweenInc(1, Long.MAX_VALUE, window, "Resume window must be positive");
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, buffer, "Resume buffer must be at least 1");
+
+		this.resume_window = unit.toMillis(window);
+		this.resume_buffer = buffer;
+		return this;
+	}
+
+	/**
+	 * Set the executor running listeners that are {@link PacketListener#offload() offloaded}.
+	 * Offloaded listeners of a single connection still run one at a time, in packet
+	 * order. On Java 21 and up, {@code Executors.newVirtualThreadPerTaskExecutor()}
+	 * can be used. The executor is not shut down by the NetworkInstance.
+	 * <br>
+	 * When not set, a pool with a daemon thread per core is created on first use.
+	 * Handlers that block for long, like database writes, can starve it. Those can
+	 * opt in to {@code Executors.newCachedThreadPool()}, at the cost of a thread
+	 * for every connection with a blocked handler.
+	 *
+	 * @param executor Executor
+	 * @return self
+	 */
+	public NetworkServerBuilder handlerExecutor(Executor executor) {
+		this.settings.setHandlerExecutor(executor);
+		return this;
+	}
+
+	/**
+	 * Set the socket transport. By default epoll is used when
+	 * available, with NIO as fallback.
+	 *
+	 * @param transport Transport
+	 * @return self
+	 */
+	public NetworkServerBuilder transport(Transport transport) {
+		NioValidate.isNull(transport, "Transport cannot be null");
+
+		this.transport = transport;
+		return this;
+	}
+
+	/**
+	 * Run the server on externally owned event loop groups, which may be
+	 * shared with other NetworkInstances. The server holds a reference to
+	 * both groups while running. The transport and thread counts of the
+	 * groups take precedence over the ones set on this builder.
+	 *
+	 * @param boss Group accepting connections
+	 * @param worker Group handling connection I/O
+	 * @return self
+	 */
+	public NetworkServerBuilder eventLoopGroups(SharedEventLoopGroup boss, SharedEventLoopGroup worker) {
+		NioValidate.isNull(boss, "Boss group cannot be null");
+		NioValidate.isNull(worker, "Worker group cannot be null");
+
+		if(boss.transport() != worker.transport()) {
+			throw new NioValidationException("Boss and worker groups must use the same transport");
+		}
+
+		this.shared_boss = boss;
+		this.shared_worker = worker;
+		return this;
+	}
+
+	/**
+	 * Run the server on a single externally owned event loop group,
+	 * used both for accepting and for handling connections
+	 *
+	 * @see #eventLoopGroups(SharedEventLoopGroup, SharedEventLoopGroup)
+	 * @param group Shared group
+	 * @return self
+	 */
+	public NetworkServerBuilder eventLoopGroup(SharedEventLoopGroup group) {
+		return eventLoopGroups(group, group);
+	}
+
+	/**
+	 * Set the amount of threads accepting connections. Defaults to 1.
+	 *
+	 * @param threads Amount of threads
+	 * @return self
+	 */
+	public NetworkServerBuilder bossThreads(int threads) {
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, threads, "Boss thread count must be at least 1");
+
+		this.boss_threads = threads;
+		return this;
+	}
+
+	/**
+	 * Set the amount of threads handling connection I/O.
+	 * Defaults to twice the amount of cores.
+	 *
+	 * @param threads Amount of threads
+	 * @return self
+	 */
+	public NetworkServerBuilder workerThreads(int threads) {
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, threads, "Worker thread count must be at least 1");
+
+		this.worker_threads = threads;
+		return this;
+	}
+
+	/**
+	 * Bind multiple server channels to the port using SO_REUSEPORT, each
+	 * accepting on its own boss thread. The kernel spreads incoming
+	 * connections over the channels, so accepting is no longer limited to
+	 * a single thread. Requires the epoll transport; with NIO a single
+	 * channel is bound instead. With a shared boss group, the amount is
+	 * capped at the threads of that group. Defaults to 1.
+	 *
+	 * @param acceptors Amount of server channels
+	 * @return self
+	 */
+	public NetworkServerBuilder acceptors(int acceptors) {
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, acceptors, "Acceptor count must be at least 1");
+
+		this.acceptors = acceptors;
+		return this;
+	}
+
+	/**
+	 * Set the amount of connections the kernel may queue before they
+	 * are accepted. The operating system may cap this value
+	 * (see net.core.somaxconn on Linux). Defaults to 1024.
+	 *
+	 * @param backlog Backlog size
+	 * @return self
+	 */
+	public NetworkServerBuilder backlog(int backlog) {
+		NioValidate.betweenInc(1, Integer.MAX_VALUE, backlog, "Backlog must be at least 1");
+
+		this.backlog = backlog;
+		return this;
+	}
+
+	/**
+	 * Set an option of the listening server channel. Options set
+	 * here override the defaults of the NetworkServer.
+	 *
+	 * @param option ChannelOption
+	 * @param value Option value
+	 * @param <T> Value type
+	 * @return self
+	 */
+	public <T> NetworkServerBuilder option(ChannelOption<T> option, T value) {
+		NioValidate.isNull(option, "Option cannot be null");
+
+		this.options.put(option, value);
+		return this;
+	}
+
+	/**
+	 * Set an option of every accepted connection. Options set
+	 * here override the defaults of the NetworkServer.
+	 *
+	 * @param option ChannelOption
+	 * @param value Option value
+	 * @param <T> Value type
+	 * @return self
+	 */
+	public <T> NetworkServerBuilder childOption(ChannelOption<T> option, T value) {
+		NioValidate.isNull(option, "Option cannot be null");
+
+		this.child_options.put(option, value);
+		return this;
+	}
+
 	/**
 	 * Register a new hook to listen for
 	 *
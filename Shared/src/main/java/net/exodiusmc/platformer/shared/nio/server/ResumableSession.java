@@ -0,0 +1,249 @@
+package net.exodiusmc.platformer.shared.nio.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AttributeKey;
+import net.exodiusmc.platformer.shared.nio.PacketConnection;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The server side of a session that survives reconnects. The session keeps
+ * the last frames sent to the client, so a client reconnecting within the
+ * resume window only receives the packets it missed.
+ * <br>
+ * Frames are counted the same way the client counts them: every frame that
+ * is not a system packet, sent after identification. The client reports how
+ * many it received, everything after that is sent again.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+final class ResumableSession {
+
+	// Channel attribute pointing to the session of a connection
+	static final AttributeKey<ResumableSession> ATTRIBUTE = AttributeKey.valueOf("transfer.session");
+
+	private enum State {
+		ATTACHED,
+		DETACHED,
+		RESUMING,
+		CLOSED
+	}
+
+	private final String name;
+	private final byte[] token;
+	private final ByteBuf[] frames;
+
+	// Guarded by this
+	private State state = State.ATTACHED;
+	private PacketConnection connection;
+	private PacketConnection resuming;
+	private long resume_epoch;
+	private long sent;
+
+	/**
+	 * Create a new ResumableSession
+	 *
+	 * @param name Identity of the client
+	 * @param token Resume token
+	 * @param capacity Amount of frames kept
+	 * @param connection Connection the session starts on
+	 */
+	ResumableSession(String name, byte[] token, int capacity, PacketConnection connection) {
+		this.name = name;
+		this.token = token;
+		this.frames = new ByteBuf[capacity];
+		this.connection = connection;
+	}
+
+	/**
+	 * Returns the identity of the client
+	 *
+	 * @return String
+	 */
+	String name() {
+		return name;
+	}
+
+	/**
+	 * Returns the token the client resumes this session with
+	 *
+	 * @return Token
+	 */
+	byte[] token() {
+		return token;
+	}
+
+	/**
+	 * Returns the connection frames are recorded for. While resuming,
+	 * this is still the previous connection.
+	 *
+	 * @return PacketConnection
+	 */
+	synchronized PacketConnection connection() {
+		return connection;
+	}
+
+	/**
+	 * Record a frame written to the attached connection
+	 *
+	 * @param conn Connection the frame was written to
+	 * @param frame Encoded frame
+	 */
+	synchronized void record(PacketConnection conn, ByteBuf frame) {
+		if(state == State.ATTACHED && conn == connection) append(frame);
+	}
+
+	/**
+	 * Record a broadcast that could not be written to the given, closed
+	 * connection. Broadcasts that already include the connection resuming
+	 * the session are not recorded, that connection receives them itself.
+	 *
+	 * @param conn Closed connection
+	 * @param frame Encoded frame
+	 * @param epoch Epoch of the broadcast
+	 */
+	synchronized void missed(PacketConnection conn, ByteBuf frame, long epoch) {
+		if(conn != connection) return;
+
+		if(state == State.DETACHED || (state == State.RESUMING && epoch < resume_epoch)) {
+			append(frame);
+		}
+	}
+
+	/**
+	 * Detach the session from its connection after it closed
+	 *
+	 * @param conn Closed connection
+	 * @return false when the session was not attached to the connection
+	 */
+	synchronized boolean detach(PacketConnection conn) {
+		if(state != State.ATTACHED || conn != connection) return false;
+
+		state = State.DETACHED;
+		return true;
+	}
+
+	/**
+	 * Start resuming the session on a new connection
+	 *
+	 * @param conn New connection
+	 * @param token Resume token supplied by the client
+	 * @param epoch Broadcasts from this epoch on include the new connection
+	 * @return false when the session can not be resumed
+	 */
+	synchronized boolean beginResume(PacketConnection conn, byte[] token, long epoch) {
+		if(state != State.DETACHED || !MessageDigest.isEqual(this.token, token)) return false;
+
+		state = State.RESUMING;
+		resuming = conn;
+		resume_epoch = epoch;
+
+		return true;
+	}
+
+	/**
+	 * Attach the session to the connection resuming it
+	 *
+	 * @param conn New connection
+	 * @return false when resuming was aborted
+	 */
+	synchronized boolean attach(PacketConnection conn) {
+		if(state != State.RESUMING || conn != resuming) return false;
+
+		state = State.ATTACHED;
+		connection = conn;
+		resuming = null;
+
+		return true;
+	}
+
+	/**
+	 * Returns the frames sent after the given amount. When some of them
+	 * are no longer kept, the session starts over and null is returned.
+	 *
+	 * @param received Amount of frames received by the client
+	 * @return Retained frames, or null when the client has to resynchronize
+	 */
+	synchronized List<ByteBuf> replay(long received) {
+		if(received < 0 || received > sent || sent - received > Math.min(sent, frames.length)) {
+			clear();
+			return null;
+		}
+
+		List<ByteBuf> replay = new ArrayList<>((int) (sent - received));
+
+		for(long i = received; i < sent; i++) {
+			replay.add(frames[(int) (i % frames.length)].retainedDuplicate());
+		}
+
+		return replay;
+	}
+
+	/**
+	 * Close the session when it is still detached from the given connection
+	 *
+	 * @param conn Closed connection
+	 * @return false when the session was resumed or closed since
+	 */
+	synchronized boolean expire(PacketConnection conn) {
+		if(state != State.DETACHED || conn != connection) return false;
+
+		close();
+		return true;
+	}
+
+	/**
+	 * Close the session and release the kept frames
+	 *
+	 * @return Connection the session was recording for, which may still be in its shard
+	 */
+	synchronized PacketConnection close() {
+		state = State.CLOSED;
+		resuming = null;
+
+		clear();
+
+		return connection;
+	}
+
+	/**
+	 * Returns true when the session is closed
+	 *
+	 * @return boolean
+	 */
+	synchronized boolean isClosed() {
+		return state == State.CLOSED;
+	}
+
+	/**
+	 * Keep a frame, replacing the oldest one when full
+	 *
+	 * @param frame Encoded frame
+	 */
+	private void append(ByteBuf frame) {
+		int index = (int) (sent++ % frames.length);
+
+		if(frames[index] != null) frames[index].release();
+
+		frames[index] = frame.retainedDuplicate();
+	}
+
+	/**
+	 * Release all kept frames
+	 */
+	private void clear() {
+		for(int i = 0; i < frames.length; i++) {
+			if(frames[i] != null) {
+				frames[i].release();
+				frames[i] = null;
+			}
+		}
+
+		sent = 0;
+	}
+
+}
@@ -1,15 +1,22 @@
 package net.exodiusmc.platformer.shared.nio.server;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
 import io.netty.channel.socket.SocketChannel;
 import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
+import net.exodiusmc.platformer.shared.nio.exception.NioValidationException;
 import net.exodiusmc.platformer.shared.nio.handler.PacketHandlerInterface;
 import net.exodiusmc.platformer.shared.nio.handler.PacketResponseHandler;
 import net.exodiusmc.platformer.shared.nio.handler.PacketHandler;
+import net.exodiusmc.platformer.shared.nio.pipeline.OutboundPacketEncoder;
 import net.exodiusmc.platformer.shared.nio.*;
 
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Serverside implementation of the ChannelManager
@@ -20,10 +27,12 @@ import java.util.concurrent.TimeUnit;
  */
 public class ServerChannelManager extends ChannelManager {
 
-	private List<PacketListener> listeners;
+	private static final byte[] NO_TOKEN = new byte[0];
+
+	private ListenerTable listeners;
 	private NetworkServer server;
-	private List<PacketConnection> pending;
-	private Map<String, PacketConnection> connections;
+	private ConnectionRegistry connections;
+	private SessionStore sessions;
 
 	/**
 	 * Create a new ChannelManager for the given NetworkInstance
@@ -31,11 +40,14 @@ public class ServerChannelManager extends ChannelManager {
 	 * @param parent NetworkInstance
 	 */
 	public ServerChannelManager(NetworkServer parent) {
-		super(parent, parent.builder.hooks, parent.builder.known_packets);
+		super(parent, parent.builder.hooks, parent.packets, parent.builder.settings);
+
+		this.listeners = new ListenerTable(parent.packets);
+		this.connections = new ConnectionRegistry();
 
-		this.listeners = new ArrayList<>();
-		this.connections = new HashMap<>();
-		this.pending = new ArrayList<>();
+		if(parent.builder.resume_window > 0) {
+			this.sessions = new SessionStore(connections, parent.builder.resume_window, parent.builder.resume_buffer);
+		}
 
 		// Store the NetworkClient
 		server = parent;
@@ -46,6 +58,9 @@ public class ServerChannelManager extends ChannelManager {
 
 			NioUtil.nettyLog(server.logger(), "** Channel " + con.channel() +
 				" disconnected: " + packet.getDisconnectMessage());
+
+			// The client left on purpose, it won't resume
+			if(sessions != null) sessions.discard(con);
 		});
 	}
 
@@ -65,11 +80,13 @@ public class ServerChannelManager extends ChannelManager {
 	}
 
 	/**
-	 * Subscribe a listener of the specified arguments
+	 * Subscribe a listener of the specified arguments. A packet can have
+	 * only one response handler, since a request gets a single response.
 	 *
 	 * @param types Packet Types
 	 * @param handler Handler
 	 * @return ServerPacketListener
+	 * @throws NioValidationException when a response handler is already subscribed to one of the packets
 	 */
 	public PacketListener subscribeRespondable(List<Class<? extends Packet>> types, PacketResponseHandler handler) {
 		PacketListener listener = new PacketListener(types, handler);
@@ -95,11 +112,13 @@ public class ServerChannelManager extends ChannelManager {
 	}
 
 	/**
-	 * Subscribe a listener of the specified arguments
+	 * Subscribe a listener of the specified arguments. A packet can have
+	 * only one response handler, since a request gets a single response.
 	 *
 	 * @param type Class<? extends Packet>
 	 * @param handler Listener
 	 * @return ServerPacketListener
+	 * @throws NioValidationException when a response handler is already subscribed to the packet
 	 */
 	public PacketListener subscribeRespondable(Class<? extends Packet> type, PacketResponseHandler handler) {
 		PacketListener listener = new PacketListener(type, handler);
@@ -124,35 +143,42 @@ public class ServerChannelManager extends ChannelManager {
 	 * @param packet Packet
 	 */
 	public void triggerListeners(Packet packet, PacketConnection origin) {
-		// Get the packet type
-		Class<? extends Packet> type = packet.getClass();
-
-		// Call listeners
-		for(PacketListener listener : listeners) {
-			if(listener.getSubscribed().contains(type)) {
-				PacketHandlerInterface handler = listener.getHandler();
-
-				if(handler instanceof PacketResponseHandler) {
-					// Validate - check if the inbound packet is
-					// actually a respondable packet
-					// if not, this means
-					if(!(packet instanceof RespondablePacket)) {
-						throw new NioNetworkException("Could not handle response: Inbound packet"
-							+ "is not a respondable packet");
-					}
-
-					// Cast fields to their respondable counterparts
-					RespondablePacket resp_packet = (RespondablePacket) packet;
-					PacketResponseHandler resp_handler = (PacketResponseHandler) handler;
-
-					// Handle the response by a separate function
-					handleResponse(resp_packet, resp_handler, origin);
-				} else {
-					((PacketHandler) handler).receive(packet, origin);
-				}
+		// Call every listener subscribed to the packet
+		for(PacketListener listener : listeners.get(packet)) {
+			if(listener.isOffloaded()) {
+				offload(origin, packet, () -> deliver(listener, packet, origin));
+			} else {
+				deliver(listener, packet, origin);
+			}
+		}
+	}
 
-				return;
+	/**
+	 * Call a single listener
+	 *
+	 * @param listener PacketListener
+	 * @param packet Packet
+	 * @param origin Connection the packet was received from
+	 */
+	private void deliver(PacketListener listener, Packet packet, PacketConnection origin) {
+		PacketHandlerInterface handler = listener.getHandler();
+
+		if(handler instanceof PacketResponseHandler) {
+			// Validate - check if the inbound packet is
+			// actually a respondable packet
+			if(!(packet instanceof RespondablePacket)) {
+				throw new NioNetworkException("Could not handle response: Inbound packet "
+					+ "is not a respondable packet");
 			}
+
+			// Cast fields to their respondable counterparts
+			RespondablePacket resp_packet = (RespondablePacket) packet;
+			PacketResponseHandler resp_handler = (PacketResponseHandler) handler;
+
+			// Handle the response by a separate function
+			handleResponse(resp_packet, resp_handler, origin);
+		} else {
+			((PacketHandler) handler).receive(packet, origin);
 		}
 	}
 
@@ -171,13 +197,6 @@ public class ServerChannelManager extends ChannelManager {
 		// Call hook
 		callHook(HookType.AUTHENTICATION, conn);
 
-		// Check if this identity is already registered
-		if(connections.containsKey(name)) {
-			NioUtil.nettyLog(server.logger(), "** Disconnecting channel: Identity '" + name + "' already identified");
-			conn.disconnect("Identity already connected");
-			return;
-		}
-
 		// Authentication
 		if(server.isAuthEnabled()) {
 			char[] server_token = server.builder.token;
@@ -196,21 +215,107 @@ public class ServerChannelManager extends ChannelManager {
 			}
 		}
 
+		// Resume the previous session when the client asks for it
+		if(sessions != null && identity.getResumeToken().length > 0 && resume(conn, identity)) {
+			return;
+		}
+
+		// Claim the identity, this fails when it is already registered
+		if(!connections.claim(name, conn)) {
+			NioUtil.nettyLog(server.logger(), "** Disconnecting channel: Identity '" + name + "' already identified");
+			conn.disconnect("Identity already connected");
+			return;
+		}
+
 		// Mark the packet as authenticated
 		ChannelManager.identifyConnection(conn, name);
 
-		// Move the channel
-		pending.remove(conn);
-		connections.put(name, conn);
-
-		// Call hook
-		callHook(HookType.AUTHENTICATION_ACCEPTED, conn);
+		ResumableSession session = sessions == null ? null : sessions.open(name, conn);
 
 		// Confirm
 		NioUtil.nettyLog(server.logger(), "Channel successfully identified as '" + name + "'");
 
-		PacketSystemAuthenticationSuccess packet = new PacketSystemAuthenticationSuccess();
+		PacketSystemAuthenticationSuccess packet = new PacketSystemAuthenticationSuccess(
+			session == null ? NO_TOKEN : session.token(),
+			false
+		);
 		conn.sendPacket(packet);
+
+		// Call hook, after confirming so packets sent
+		// by the hook count towards the session
+		callHook(HookType.AUTHENTICATION_ACCEPTED, conn);
+	}
+
+	/**
+	 * Resume the session of a reconnecting client. Frames sent to the new
+	 * connection are held back, until the frames the client missed have
+	 * been collected on the event loop of the previous connection, after
+	 * all broadcasts that were still on their way to it.
+	 *
+	 * @param conn New connection
+	 * @param identity Identification packet
+	 * @return false when there is no session to resume
+	 */
+	private boolean resume(PacketConnection conn, PacketSystemAuthentication identity) {
+		SessionRecorder recorder = (SessionRecorder) conn.channel().pipeline().get("SessionRecorder");
+
+		recorder.hold();
+
+		ResumableSession session = sessions.resume(conn, identity);
+
+		if(session == null) {
+			recorder.release(null, null);
+			return false;
+		}
+
+		ChannelManager.identifyConnection(conn, session.name());
+
+		PacketConnection previous = session.connection();
+		long received = identity.getReceived();
+
+		try {
+			previous.channel().eventLoop().execute(() -> {
+				if(!session.attach(conn)) return;
+
+				connections.evict(previous);
+
+				List<ByteBuf> replay = session.replay(received);
+
+				conn.channel().eventLoop().execute(() -> completeResume(conn, session, replay));
+			});
+		} catch(RejectedExecutionException ex) {
+			// The server is shutting down
+			conn.disconnect("Server shutting down");
+		}
+
+		return true;
+	}
+
+	/**
+	 * Confirm a resumed session, and write the frames the client missed
+	 * before the frames that were held back
+	 *
+	 * @param conn New connection
+	 * @param session ResumableSession
+	 * @param replay Missed frames, or null when they are no longer kept
+	 */
+	private void completeResume(PacketConnection conn, ResumableSession session, List<ByteBuf> replay) {
+		SessionRecorder recorder = (SessionRecorder) conn.channel().pipeline().get("SessionRecorder");
+
+		if(recorder == null || !conn.channel().isActive()) {
+			if(replay != null) replay.forEach(ByteBuf::release);
+			return;
+		}
+
+		PacketSystemAuthenticationSuccess packet = new PacketSystemAuthenticationSuccess(session.token(), replay != null);
+
+		recorder.release(OutboundPacketEncoder.encodeFrame(this, conn, conn.channel().alloc(), packet), replay);
+
+		NioUtil.nettyLog(server.logger(), "Channel resumed the session of '" + session.name() + "'" +
+			(replay == null ? ", missed packets were no longer kept" : " (" + replay.size() + " missed packets)"));
+
+		// Call hook
+		callHook(HookType.AUTHENTICATION_ACCEPTED, conn);
 	}
 
 	/**
@@ -234,21 +339,20 @@ public class ServerChannelManager extends ChannelManager {
 	@Override
 	public void setupChannel(SocketChannel channel) {
 		// Create a new PacketConnection
-		PacketConnection connection = new PacketConnection(channel);
+		PacketConnection connection = new PacketConnection(this, channel);
 
-		// Store the connection
-		pending.add(connection);
+		// Record what is sent, so the client can resume its session
+		if(sessions != null) {
+			channel.pipeline().addBefore("OutboundPacketEncoder", "SessionRecorder", new SessionRecorder(connection));
+		}
 
 		channel.eventLoop().schedule(() -> {
-			// Try to remove the pending server
-			if(pending.contains(connection)) {
+			// Disconnect the client when it is still unidentified
+			if(!connection.isAuthenticated() && channel.isActive()) {
 				NioUtil.nettyLog(server.logger(), "Client failed to identify after 1 second: Disconnecting");
 
 				// Disconnect
 				connection.disconnect("Identification timeout");
-
-				// Remove
-				pending.remove(connection);
 			}
 		}, 1, TimeUnit.SECONDS);
 
@@ -258,26 +362,17 @@ public class ServerChannelManager extends ChannelManager {
 
 	@Override
 	public void channelDisconnected(SocketChannel channel) {
-		PacketConnection disconnected = null;
-
-		// FIX: #connection() doesn't work in this context
-		for(PacketConnection pc : connections.values()) {
-			if(pc.channel().id().equals(channel.id())) {
-				disconnected = pc;
-				break;
-			}
-		}
+		PacketConnection disconnected = connection(channel);
 
-		// Check if we did actually find the name
+		// Check if we did actually find the connection
 		NioValidate.isNull(disconnected, "Unknown channel disconnected");
 
 		NioUtil.nettyLog(server.logger(), "Channel '" + disconnected.getName() + "' disconnected");
 
-		// Remove
-		if(disconnected.isAuthenticated()) {
-			connections.remove(disconnected.getName());
-		} else {
-			pending.remove(disconnected);
+		// Remove, unidentified connections were never registered. The
+		// connection is kept while its session can still be resumed
+		if(disconnected.isAuthenticated() && (sessions == null || !sessions.detach(disconnected))) {
+			connections.release(disconnected);
 		}
 
 		// Call hook
@@ -295,36 +390,108 @@ public class ServerChannelManager extends ChannelManager {
 	}
 
 	/**
-	 * Get a PacketConnection by it's wrapped SocketChannel
+	 * Broadcast a packet. The packet is encoded only once, after which
+	 * the encoded frame is shared between all connections. A single task
+	 * is submitted to every event loop, which writes the frame to all of
+	 * the connections on that loop. Connections that are closed or not
+	 * writable are skipped.
+	 * <br>
+	 * Broadcasts are the packets a resumable session keeps while its
+	 * client is disconnected.
 	 *
-	 * @param channel SocketChannel
-	 * @return PacketConnection
+	 * @param packet Packet to broadcast
 	 */
-	public PacketConnection connection(Channel channel) {
-		for(Map.Entry<String, PacketConnection> chan : connections.entrySet()) {
-			if(chan.getValue().equals(channel)) {
-				return chan.getValue();
+	public void broadcast(Packet packet) {
+		// Requests need their own response id per connection
+		if(packet instanceof RespondablePacket && !((RespondablePacket) packet).isResponse()) {
+			for(PacketConnection conn : connections.all()) {
+				conn.sendPacket(packet);
+			}
+			return;
+		}
+
+		ByteBuf frame = OutboundPacketEncoder.encodeFrame(this, null, ByteBufAllocator.DEFAULT, packet);
+
+		if(frame == null) return;
+
+		// Sessions may not be resumed while we pick the connections
+		Lock lock = sessions == null ? null : sessions.shared();
+
+		if(lock != null) lock.lock();
+
+		try {
+			long epoch = lock == null ? 0 : sessions.epoch();
+
+			for(ConnectionRegistry.Shard shard : connections.shards()) {
+				EventLoop loop = shard.loop();
+				PacketConnection[] conns = shard.members();
+
+				if(conns.length == 0) continue;
+
+				// Write directly when we're already on the loop
+				if(loop.inEventLoop()) {
+					writeFrame(conns, frame, epoch);
+					continue;
+				}
+
+				// Every task holds its own reference to the frame
+				frame.retain();
+
+				try {
+					loop.execute(() -> {
+						try {
+							writeFrame(conns, frame, epoch);
+						} finally {
+							frame.release();
+						}
+					});
+				} catch(RejectedExecutionException ex) {
+					// The loop is shutting down
+					frame.release();
+				}
 			}
+		} finally {
+			if(lock != null) lock.unlock();
+
+			frame.release();
 		}
+	}
 
-		for(PacketConnection conn : pending) {
-			if(conn.channel().equals(channel)) {
-				return conn;
+	/**
+	 * Write an encoded frame to all connections of an event loop. Closed
+	 * connections are only in the shard while their session is detached,
+	 * the session records the frame instead.
+	 * This method must be called from the event loop itself.
+	 *
+	 * @param conns Connections of the loop
+	 * @param frame Encoded frame
+	 * @param epoch Session epoch at the time of broadcasting
+	 */
+	private void writeFrame(PacketConnection[] conns, ByteBuf frame, long epoch) {
+		for(PacketConnection conn : conns) {
+			if(sessions != null && !conn.channel().isActive()) {
+				sessions.missed(conn, frame, epoch);
+				continue;
 			}
+
+			conn.sendFrame(frame.retainedDuplicate());
 		}
+	}
+
+	@Override
+	public synchronized void shutdown() {
+		if(sessions != null) sessions.closeAll();
 
-		return null;
+		super.shutdown();
 	}
 
 	/**
-	 * Broadcast a packet
+	 * Returns the registry of identified connections
 	 *
-	 * @param packet Packet to broadcast
+	 * @return ConnectionRegistry
 	 */
-	public void broadcast(Packet packet) {
-		for(PacketConnection conn : connections.values()) {
-			conn.sendPacket(packet);
-		}
+	public ConnectionRegistry connections() {
+		return connections;
 	}
 
 	/**
@@ -0,0 +1,149 @@
+package net.exodiusmc.platformer.shared.nio.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import net.exodiusmc.platformer.shared.nio.PacketConnection;
+import net.exodiusmc.platformer.shared.nio.exception.NioNetworkException;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Records the frames written to a connection in its {@link ResumableSession}.
+ * The handler sits right behind the packet encoder, so it sees both encoded
+ * packets and frames written by broadcasts, in the order they hit the wire.
+ * <br>
+ * While a session is being resumed, frames are held back until the missed
+ * frames have been written.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+class SessionRecorder extends ChannelOutboundHandlerAdapter {
+
+	private PacketConnection connection;
+
+	// Only accessed from the event loop of the channel
+	private ChannelHandlerContext ctx;
+	private Queue<HeldFrame> held;
+
+	/**
+	 * Create a new SessionRecorder
+	 *
+	 * @param connection Connection the frames are written to
+	 */
+	SessionRecorder(PacketConnection connection) {
+		this.connection = connection;
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) {
+		this.ctx = ctx;
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) {
+		if(held == null) return;
+
+		NioNetworkException closed = new NioNetworkException("Channel closed before the session was resumed");
+
+		while(!held.isEmpty()) {
+			HeldFrame frame = held.poll();
+
+			frame.frame.release();
+
+			if(!frame.promise.isVoid()) frame.promise.tryFailure(closed);
+		}
+
+		held = null;
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+		if(!(msg instanceof ByteBuf)) {
+			ctx.write(msg, promise);
+			return;
+		}
+
+		if(held != null) {
+			held.add(new HeldFrame((ByteBuf) msg, promise));
+			return;
+		}
+
+		record((ByteBuf) msg);
+
+		ctx.write(msg, promise);
+	}
+
+	/**
+	 * Hold back all frames until {@link #release(ByteBuf, List)} is called.
+	 * Must be called from the event loop.
+	 */
+	void hold() {
+		if(held == null) held = new ArrayDeque<>();
+	}
+
+	/**
+	 * Write the given frames, followed by the frames that were held back.
+	 * The given frames are not recorded. Must be called from the event loop.
+	 *
+	 * @param first Frame written first, may be null
+	 * @param replay Frames written next, may be null
+	 */
+	void release(ByteBuf first, List<ByteBuf> replay) {
+		Queue<HeldFrame> frames = held;
+
+		held = null;
+
+		if(first != null) ctx.write(first, ctx.voidPromise());
+
+		if(replay != null) {
+			for(ByteBuf frame : replay) {
+				ctx.write(frame, ctx.voidPromise());
+			}
+		}
+
+		if(frames != null) {
+			for(HeldFrame frame : frames) {
+				record(frame.frame);
+
+				ctx.write(frame.frame, frame.promise);
+			}
+		}
+
+		ctx.flush();
+	}
+
+	/**
+	 * Record a frame, unless it is a system packet
+	 *
+	 * @param frame Encoded frame
+	 */
+	private void record(ByteBuf frame) {
+		ResumableSession session = ctx.channel().attr(ResumableSession.ATTRIBUTE).get();
+
+		// The packet id follows the length prefix, system packets are negative
+		if(session != null && frame.readableBytes() > 4 && frame.getByte(frame.readerIndex() + 4) >= 0) {
+			session.record(connection, frame);
+		}
+	}
+
+	/**
+	 * A frame held back while resuming
+	 */
+	private static final class HeldFrame {
+
+		private final ByteBuf frame;
+		private final ChannelPromise promise;
+
+		private HeldFrame(ByteBuf frame, ChannelPromise promise) {
+			this.frame = frame;
+			this.promise = promise;
+		}
+	}
+
+}
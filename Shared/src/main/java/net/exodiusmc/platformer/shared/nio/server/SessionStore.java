@@ -0,0 +1,219 @@
+package net.exodiusmc.platformer.shared.nio.server;
+
+import io.netty.buffer.ByteBuf;
+import net.exodiusmc.platformer.shared.nio.PacketConnection;
+import net.exodiusmc.platformer.shared.nio.PacketSystemAuthentication;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the resumable sessions of a NetworkServer.
+ * <br>
+ * A closed connection stays in its shard of the {@link ConnectionRegistry}
+ * while its session is detached, so broadcasts reach it on its own event
+ * loop and the session records them in order. Broadcasts hold the shared
+ * lock while they pick their connections, resuming a session takes the
+ * exclusive lock, so every broadcast either reaches the new connection
+ * or is recorded by the session.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+class SessionStore {
+
+	private static final int TOKEN_LENGTH = 16;
+
+	private final ConcurrentMap<String, ResumableSession> sessions = new ConcurrentHashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final SecureRandom random = new SecureRandom();
+	private final ConnectionRegistry connections;
+	private final long window;
+	private final int capacity;
+
+	// Guarded by the lock
+	private long epoch;
+
+	/**
+	 * Create a new SessionStore
+	 *
+	 * @param connections Registry of identified connections
+	 * @param window Time in milliseconds a detached session is kept
+	 * @param capacity Amount of frames kept per session
+	 */
+	SessionStore(ConnectionRegistry connections, long window, int capacity) {
+		this.connections = connections;
+		this.window = window;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the lock broadcasts hold while picking their connections
+	 *
+	 * @return Lock
+	 */
+	Lock shared() {
+		return lock.readLock();
+	}
+
+	/**
+	 * Returns the current epoch. Must be called while holding the shared lock.
+	 *
+	 * @return long
+	 */
+	long epoch() {
+		return epoch;
+	}
+
+	/**
+	 * Start a new session for an identified connection, closing
+	 * the previous session of the identity
+	 *
+	 * @param name Identity
+	 * @param conn PacketConnection
+	 * @return ResumableSession
+	 */
+	ResumableSession open(String name, PacketConnection conn) {
+		byte[] token = new byte[TOKEN_LENGTH];
+
+		random.nextBytes(token);
+
+		ResumableSession session = new ResumableSession(name, token, capacity, conn);
+		ResumableSession previous = sessions.put(name, session);
+
+		if(previous != null) close(previous);
+
+		conn.channel().attr(ResumableSession.ATTRIBUTE).set(session);
+
+		return session;
+	}
+
+	/**
+	 * Start resuming the session of the identity on a new connection, and claim
+	 * the identity. Frames written to the connection must be held back.
+	 *
+	 * @param conn New connection
+	 * @param identity Identification packet
+	 * @return ResumableSession, or null when there is no session to resume
+	 */
+	ResumableSession resume(PacketConnection conn, PacketSystemAuthentication identity) {
+		String name = identity.getIdentity();
+
+		lock.writeLock().lock();
+
+		try {
+			ResumableSession session = sessions.get(name);
+
+			if(session == null || !session.beginResume(conn, identity.getResumeToken(), ++epoch)) {
+				return null;
+			}
+
+			// The identity was claimed by a new session in the meantime
+			if(!connections.claim(name, conn)) {
+				discard(session);
+				return null;
+			}
+
+			conn.channel().attr(ResumableSession.ATTRIBUTE).set(session);
+
+			return session;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Detach the session of a closed connection, keeping it for the resume
+	 * window. Must be called from the event loop of the connection.
+	 *
+	 * @param conn Closed connection
+	 * @return false when there is no session to keep, and the connection should be released
+	 */
+	boolean detach(PacketConnection conn) {
+		ResumableSession session = conn.channel().attr(ResumableSession.ATTRIBUTE).get();
+
+		if(session == null) return false;
+
+		if(!session.detach(conn)) {
+			// The connection was resuming the session, start over
+			if(session.connection() != conn) discard(session);
+
+			return false;
+		}
+
+		connections.retire(conn);
+
+		conn.channel().eventLoop().schedule(() -> {
+			if(session.expire(conn)) {
+				sessions.remove(session.name(), session);
+				connections.evict(conn);
+			}
+		}, window, TimeUnit.MILLISECONDS);
+
+		return true;
+	}
+
+	/**
+	 * Close the session of a connection that disconnected on purpose
+	 *
+	 * @param conn PacketConnection
+	 */
+	void discard(PacketConnection conn) {
+		ResumableSession session = conn.channel().attr(ResumableSession.ATTRIBUTE).get();
+
+		if(session != null) discard(session);
+	}
+
+	/**
+	 * Record a broadcast that could not be written to a closed connection.
+	 * Must be called from the event loop of the connection.
+	 *
+	 * @param conn Closed connection
+	 * @param frame Encoded frame
+	 * @param epoch Epoch of the broadcast
+	 */
+	void missed(PacketConnection conn, ByteBuf frame, long epoch) {
+		ResumableSession session = conn.channel().attr(ResumableSession.ATTRIBUTE).get();
+
+		if(session != null) session.missed(conn, frame, epoch);
+	}
+
+	/**
+	 * Close all sessions
+	 */
+	void closeAll() {
+		for(ResumableSession session : sessions.values()) {
+			discard(session);
+		}
+	}
+
+	/**
+	 * Close a session and forget about it
+	 *
+	 * @param session ResumableSession
+	 */
+	private void discard(ResumableSession session) {
+		sessions.remove(session.name(), session);
+		close(session);
+	}
+
+	/**
+	 * Close a session, evicting its closed connection from the registry
+	 *
+	 * @param session ResumableSession
+	 */
+	private void close(ResumableSession session) {
+		PacketConnection conn = session.close();
+
+		if(conn != null && !conn.channel().isActive()) {
+			connections.evict(conn);
+		}
+	}
+
+}
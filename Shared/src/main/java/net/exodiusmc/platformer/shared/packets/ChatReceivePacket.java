@@ -0,0 +1,104 @@
+package net.exodiusmc.platformer.shared.packets;
+
+import io.netty.buffer.ByteBuf;
+import net.exodiusmc.platformer.shared.nio.NioUtil;
+import net.exodiusmc.platformer.shared.nio.Packet;
+import net.exodiusmc.platformer.shared.nio.Recyclable;
+
+/**
+ * Delivers a chat message to the members of a room. The
+ * sender receives the message id through the response
+ * of its {@link ChatSendPacket} instead.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class ChatReceivePacket extends Packet implements Recyclable {
+
+    private String room;
+    private String sender;
+    private String msg;
+    private long mid;
+
+    public ChatReceivePacket() {}
+
+    public ChatReceivePacket(String room, String sender, String msg, long mid) {
+        this.room = room;
+        this.sender = sender;
+        this.msg = msg;
+        this.mid = mid;
+    }
+
+    /**
+     * Returns the room the message was sent to
+     *
+     * @return String
+     */
+    public String getRoom() {
+        checkReleased();
+        return room;
+    }
+
+    /**
+     * Returns the name of the sender
+     *
+     * @return String
+     */
+    public String getSender() {
+        checkReleased();
+        return sender;
+    }
+
+    /**
+     * Returns the chat message
+     *
+     * @return String
+     */
+    public String getMessage() {
+        checkReleased();
+        return msg;
+    }
+
+    /**
+     * Returns the message id assigned by the server
+     *
+     * @see net.exodiusmc.platformer.shared.Snowflake
+     * @return long
+     */
+    public long getMessageId() {
+        checkReleased();
+        return mid;
+    }
+
+    @Override
+    public SendRule packetSendRule() {
+        return SendRule.SERVER;
+    }
+
+    @Override
+    public void reset() {
+        this.room = null;
+        this.sender = null;
+        this.msg = null;
+        this.mid = 0;
+    }
+
+    @Override
+    public void encodePayload(ByteBuf buffer) {
+        // VarString room, VarString sender, VarString msg, long mid
+        NioUtil.writeVarString(buffer, room);
+        NioUtil.writeVarString(buffer, sender);
+        NioUtil.writeVarString(buffer, msg);
+        buffer.writeLong(mid);
+    }
+
+    @Override
+    public void decodePayload(ByteBuf buffer) {
+        // VarString room, VarString sender, VarString msg, long mid
+        this.room = NioUtil.readVarString(buffer);
+        this.sender = NioUtil.readVarString(buffer);
+        this.msg = NioUtil.readVarString(buffer);
+        this.mid = buffer.readLong();
+    }
+}
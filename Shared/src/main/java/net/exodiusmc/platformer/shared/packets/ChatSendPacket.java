@@ -2,10 +2,11 @@ package net.exodiusmc.platformer.shared.packets;
 
 import io.netty.buffer.ByteBuf;
 import net.exodiusmc.platformer.shared.nio.NioUtil;
+import net.exodiusmc.platformer.shared.nio.Recyclable;
 import net.exodiusmc.platformer.shared.nio.RespondablePacket;
 
 /**
- * Send a chat packet to the server. A response will be
+ * Send a chat packet to a room on the server. A response will be
  * sent back containing the message id. this id is supposed to
  * be stored alongside the message.
  *
@@ -13,40 +14,98 @@ import net.exodiusmc.platformer.shared.nio.RespondablePacket;
  * @version 1.0.0
  * @since 10/02/2017
  */
-public class ChatSendPacket extends RespondablePacket {
+public class ChatSendPacket extends RespondablePacket implements Recyclable {
 
     // Request
+    private String room;
     private String msg;
     private byte tid;
 
     // Response
-    private byte mid;
+    private long mid;
 
     public ChatSendPacket() {}
 
-    public ChatSendPacket(String msg) {
+    public ChatSendPacket(String room, String msg) {
+        this.room = room;
         this.msg = msg;
     }
 
+    /**
+     * Returns the room the message is sent to
+     *
+     * @return String
+     */
+    public String getRoom() {
+        checkReleased();
+        return room;
+    }
+
+    /**
+     * Returns the chat message
+     *
+     * @return String
+     */
+    public String getMessage() {
+        checkReleased();
+        return msg;
+    }
+
+    /**
+     * Returns the message id assigned by the server
+     *
+     * @see net.exodiusmc.platformer.shared.Snowflake
+     * @return long
+     */
+    public long getMessageId() {
+        checkReleased();
+        return mid;
+    }
+
+    /**
+     * Turn this packet into the acknowledgement of the
+     * received message, carrying the assigned message id
+     *
+     * @param mid Message id
+     * @return self
+     */
+    public ChatSendPacket acknowledge(long mid) {
+        this.mid = mid;
+        markAsResponse();
+        return this;
+    }
+
     @Override
-    public void encodeResponse(ByteBuf buffer) {
+    public void reset() {
+        this.room = null;
+        this.msg = null;
+        this.tid = 0;
+        this.mid = 0;
+    }
 
+    @Override
+    public void encodeResponse(ByteBuf buffer) {
+        // long mid
+        buffer.writeLong(mid);
     }
 
     @Override
     public void decodeResponse(ByteBuf buffer) {
-
-    } 
+        // long mid
+        this.mid = buffer.readLong();
+    }
 
     @Override
     public void encodePayload(ByteBuf buffer) {
-        // msg
-        NioUtil.writeString(buffer, msg);
+        // VarString room, VarString msg
+        NioUtil.writeVarString(buffer, room);
+        NioUtil.writeVarString(buffer, msg);
     }
 
     @Override
     public void decodePayload(ByteBuf buffer) {
-        // msg
-        this.msg = NioUtil.readString(buffer);
+        // VarString room, VarString msg
+        this.room = NioUtil.readVarString(buffer);
+        this.msg = NioUtil.readVarString(buffer);
     }
 }
@@ -0,0 +1,59 @@
+package net.exodiusmc.platformer.shared.packets;
+
+import io.netty.buffer.ByteBuf;
+import net.exodiusmc.platformer.shared.nio.NioUtil;
+import net.exodiusmc.platformer.shared.nio.Packet;
+import net.exodiusmc.platformer.shared.nio.Recyclable;
+
+/**
+ * Join a chat room on the server. The room is created when
+ * it does not exist yet. Chat sent to the room is delivered
+ * with a {@link ChatReceivePacket} until the room is left,
+ * or the connection closes.
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class RoomJoinPacket extends Packet implements Recyclable {
+
+    private String room;
+
+    public RoomJoinPacket() {}
+
+    public RoomJoinPacket(String room) {
+        this.room = room;
+    }
+
+    /**
+     * Returns the room to join
+     *
+     * @return String
+     */
+    public String getRoom() {
+        checkReleased();
+        return room;
+    }
+
+    @Override
+    public SendRule packetSendRule() {
+        return SendRule.CLIENT;
+    }
+
+    @Override
+    public void reset() {
+        this.room = null;
+    }
+
+    @Override
+    public void encodePayload(ByteBuf buffer) {
+        // VarString room
+        NioUtil.writeVarString(buffer, room);
+    }
+
+    @Override
+    public void decodePayload(ByteBuf buffer) {
+        // VarString room
+        this.room = NioUtil.readVarString(buffer);
+    }
+}
@@ -0,0 +1,173 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import net.exodiusmc.platformer.shared.TransferPackets;
+import net.exodiusmc.platformer.shared.nio.client.NetworkClient;
+import net.exodiusmc.platformer.shared.nio.server.NetworkServer;
+import net.exodiusmc.platformer.shared.packets.ChatReceivePacket;
+import net.exodiusmc.platformer.shared.packets.RoomJoinPacket;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures how many flushes reach the socket under load for every
+ * {@link FlushPolicy}. Every flush reaching the socket is a write syscall.
+ * <br>
+ * A client sends bursts of packets, and the server answers every packet with
+ * {@link PacketConnection#sendPacket(Packet)}, which asks for a flush each
+ * time. A handler in front of the server pipeline counts the flushes that make
+ * it through the flush consolidation.
+ * <br>
+ * Usage: <i>FlushPolicyBenchmark [packets] [port]</i>
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class FlushPolicyBenchmark {
+
+	public static final int DEFAULT_PACKETS = 500_000;
+	public static final int BURST = 64;
+	public static final int WINDOW = 8 * BURST;
+
+	private final Logger logger;
+	private final int packets;
+	private int port;
+
+	/**
+	 * Create a new FlushPolicyBenchmark
+	 *
+	 * @param packets Amount of packets sent per policy
+	 * @param port First port to run the servers on, one per policy
+	 */
+	public FlushPolicyBenchmark(int packets, int port) {
+		this.packets = packets;
+		this.port = port;
+
+		this.logger = Logger.getLogger("FlushPolicyBenchmark");
+		this.logger.setLevel(Level.WARNING);
+	}
+
+	/**
+	 * Run the benchmark
+	 *
+	 * @throws InterruptedException When interrupted while waiting for the answers
+	 */
+	public void run() throws InterruptedException {
+		System.out.println("policy                            packets    flushes  packets/flush   packets/s");
+
+		// Warm up
+		measure("warm up", FlushPolicy.IMMEDIATE, false);
+
+		measure("immediate", FlushPolicy.IMMEDIATE, true);
+		measure("after 16 writes", FlushPolicy.afterWrites(16), true);
+		measure("end of read batch", FlushPolicy.endOfReadBatch(), true);
+		measure("after 64 writes, 50us deadline", FlushPolicy.afterWrites(64).withDeadline(50), true);
+	}
+
+	/**
+	 * Send the packets to a server using the given policy, and print the results
+	 *
+	 * @param name Policy name
+	 * @param policy FlushPolicy of the server
+	 * @param print Print the results
+	 * @throws InterruptedException When interrupted while waiting for the answers
+	 */
+	private void measure(String name, FlushPolicy policy, boolean print) throws InterruptedException {
+		FlushCounter flushes = new FlushCounter();
+		AtomicLong answered = new AtomicLong();
+
+		NetworkServer server = NetworkServer.setup(port)
+			.useLogger(logger)
+			.packets(TransferPackets.list())
+			.flushPolicy(policy)
+			.hook(HookType.CONNECTED, conn -> conn.channel().pipeline().addFirst("FlushCounter", flushes))
+			.buildAndStart();
+
+		server.channelManager().subscribe(RoomJoinPacket.class, (packet, conn) ->
+			conn.sendPacket(new ChatReceivePacket("bench", "server", "ok", 0)));
+
+		NetworkClient client = NetworkClient.setup("127.0.0.1", port++, "flush-bench")
+			.authenticate(new char[0])
+			.useLogger(logger)
+			.packets(TransferPackets.list())
+			.buildAndStart();
+
+		client.channelManager().subscribe(ChatReceivePacket.class, (packet, conn) -> answered.incrementAndGet());
+
+		PacketConnection conn = connection(client);
+		RoomJoinPacket packet = new RoomJoinPacket("bench");
+
+		flushes.count.set(0);
+
+		long start = System.nanoTime();
+
+		for(int sent = 0; sent < packets; sent += BURST) {
+			// Keep a few bursts in flight
+			while(sent - answered.get() > WINDOW) Thread.yield();
+
+			for(int i = 0; i < BURST; i++) conn.send(packet);
+
+			conn.flush();
+		}
+
+		while(answered.get() < packets) Thread.yield();
+
+		long time = System.nanoTime() - start;
+
+		if(print) {
+			System.out.printf("%-32s %8d %10d %14.1f %11.0f%n", name, packets, flushes.count.get(),
+				(double) packets / flushes.count.get(), packets / (time / 1e9));
+		}
+
+		client.stop();
+		server.stop();
+	}
+
+	/**
+	 * Returns the connection of a client once it is authenticated
+	 *
+	 * @param client NetworkClient
+	 * @return PacketConnection
+	 * @throws InterruptedException When interrupted while waiting
+	 */
+	private static PacketConnection connection(NetworkClient client) throws InterruptedException {
+		while(true) {
+			PacketConnection conn = client.channelManager().connection();
+
+			if(conn != null && conn.isAuthenticated()) return conn;
+
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * Counts the flushes passing by
+	 */
+	@ChannelHandler.Sharable
+	private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+
+		private final AtomicLong count = new AtomicLong();
+
+		@Override
+		public void flush(ChannelHandlerContext ctx) throws Exception {
+			count.incrementAndGet();
+
+			ctx.flush();
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int packets = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PACKETS;
+		int port = args.length > 1 ? Integer.parseInt(args[1]) : 25580;
+
+		new FlushPolicyBenchmark(packets, port).run();
+
+		System.exit(0);
+	}
+
+}
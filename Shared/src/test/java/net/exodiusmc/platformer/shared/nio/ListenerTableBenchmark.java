@@ -0,0 +1,175 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import net.exodiusmc.platformer.shared.TransferPackets;
+import net.exodiusmc.platformer.shared.nio.handler.PacketHandler;
+import net.exodiusmc.platformer.shared.packets.ChatReceivePacket;
+import net.exodiusmc.platformer.shared.packets.ChatSendPacket;
+import net.exodiusmc.platformer.shared.packets.RoomJoinPacket;
+import net.exodiusmc.platformer.shared.packets.RoomLeavePacket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares dispatching an inbound packet through the {@link ListenerTable}
+ * with the way listeners used to be triggered: walking every listener and
+ * checking a freshly wrapped set of subscribed classes.
+ * <br>
+ * Out of the subscribed listeners, only the last one listens for the
+ * dispatched packet, the others listen for other packets. This is the
+ * worst case for the old walk, which stopped at the first match.
+ * <br>
+ * Usage: <i>ListenerTableBenchmark [dispatches]</i>
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class ListenerTableBenchmark {
+
+	public static final int DEFAULT_DISPATCHES = 2_000_000;
+	public static final int ROUNDS = 5;
+	public static final int[] LISTENERS = { 1, 10, 50, 100, 250, 500 };
+
+	private static final List<Class<? extends Packet>> OTHERS =
+		Collections.unmodifiableList(Arrays.asList(ChatReceivePacket.class, RoomJoinPacket.class, RoomLeavePacket.class));
+
+	// Keeps the JIT from removing the dispatches
+	private static long sink;
+
+	private final PacketRegistry packets;
+	private final int dispatches;
+
+	/**
+	 * Create a new ListenerTableBenchmark
+	 *
+	 * @param dispatches Amount of packets dispatched per round
+	 */
+	public ListenerTableBenchmark(int dispatches) {
+		this.dispatches = dispatches;
+
+		PacketRegistry.Builder builder = PacketRegistry.builder();
+
+		for(PacketInfo info : TransferPackets.list()) builder.register(info);
+
+		this.packets = builder.build();
+	}
+
+	/**
+	 * Run the benchmark
+	 */
+	public void run() {
+		System.out.println("listeners   linear walk ns/op   table ns/op   linear bytes/op   table bytes/op");
+
+		PacketHandler handler = (packet, conn) -> sink++;
+
+		for(int count : LISTENERS) {
+			ListenerTable table = new ListenerTable(packets);
+			List<LegacyListener> legacy = new ArrayList<>(count);
+
+			for(int i = 0; i < count - 1; i++) {
+				Class<? extends Packet> type = OTHERS.get(i % OTHERS.size());
+
+				table.add(new PacketListener(type, handler));
+				legacy.add(new LegacyListener(type, handler));
+			}
+
+			table.add(new PacketListener(ChatSendPacket.class, handler));
+			legacy.add(new LegacyListener(ChatSendPacket.class, handler));
+
+			Packet packet = new ChatSendPacket("lobby", "hi");
+
+			long[] linear = measure(() -> dispatchLinear(legacy, packet));
+			long[] indexed = measure(() -> dispatchTable(table, packet));
+
+			System.out.printf("%9d %19.1f %13.1f %17.1f %16.1f%n", count,
+				(double) linear[0] / dispatches, (double) indexed[0] / dispatches,
+				(double) linear[1] / dispatches, (double) indexed[1] / dispatches);
+		}
+	}
+
+	/**
+	 * Dispatch for a few rounds, returning the time and allocated bytes of the last one
+	 *
+	 * @param dispatch Dispatches one packet
+	 * @return Nanoseconds and bytes allocated
+	 */
+	private long[] measure(Runnable dispatch) {
+		long time = 0, allocated = 0;
+
+		// Every round but the last warms up
+		for(int round = 0; round < ROUNDS; round++) {
+			long bytes = NioUtilBenchmark.allocatedBytes();
+			long start = System.nanoTime();
+
+			for(int i = 0; i < dispatches; i++) {
+				dispatch.run();
+			}
+
+			time = System.nanoTime() - start;
+			allocated = NioUtilBenchmark.allocatedBytes() - bytes;
+		}
+
+		return new long[] { time, allocated };
+	}
+
+	/**
+	 * Trigger the listeners the way the ChannelManagers do now
+	 *
+	 * @param table ListenerTable
+	 * @param packet Packet
+	 */
+	private static void dispatchTable(ListenerTable table, Packet packet) {
+		for(PacketListener listener : table.get(packet)) {
+			((PacketHandler) listener.getHandler()).receive(packet, null);
+		}
+	}
+
+	/**
+	 * Trigger the listeners the way the ChannelManagers used to
+	 *
+	 * @param listeners Listener list
+	 * @param packet Packet
+	 */
+	private static void dispatchLinear(List<LegacyListener> listeners, Packet packet) {
+		Class<? extends Packet> type = packet.getClass();
+
+		for(LegacyListener listener : listeners) {
+			if(listener.getSubscribed().contains(type)) {
+				listener.handler.receive(packet, null);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * PacketListener as it used to be, wrapping its set on every call
+	 */
+	private static class LegacyListener {
+
+		private final Set<Class<? extends Packet>> packets = new HashSet<>();
+		private final PacketHandler handler;
+
+		private LegacyListener(Class<? extends Packet> type, PacketHandler handler) {
+			this.packets.add(type);
+			this.handler = handler;
+		}
+
+		private Set<Class<? extends Packet>> getSubscribed() {
+			return Collections.unmodifiableSet(packets);
+		}
+	}
+
+	public static void main(String[] args) {
+		int dispatches = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DISPATCHES;
+
+		new ListenerTableBenchmark(dispatches).run();
+
+		System.out.println("(" + sink + ")");
+	}
+
+}
@@ -0,0 +1,162 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares the string codec of {@link NioUtil} with the way strings used to
+ * be read: through an intermediate ByteBuf. Writes go through a temporary byte
+ * array, encoding in place with {@link ByteBufUtil#writeUtf8} is measured for
+ * reference. Every codec runs against the same pooled direct buffer the
+ * pipeline uses, and reports the time and the amount of bytes allocated per
+ * string.
+ * <br>
+ * Usage: <i>NioUtilBenchmark [operations]</i>
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class NioUtilBenchmark {
+
+	public static final int DEFAULT_OPERATIONS = 5_000_000;
+	public static final int ROUNDS = 5;
+
+	private static final String ASCII = "Hey everyone, is anybody up for another round on the new map?";
+	// German, French, Russian and an emoji outside the BMP
+	private static final String UNICODE = "Gr\u00FC\u00DFe aus K\u00F6ln, \u00E7a va? \u041D\u043E\u0432\u0430\u044F \u043A\u0430\u0440\u0442\u0430 \u0433\u043E\u0442\u043E\u0432\u0430 \uD83C\uDFAE";
+
+	// Keeps the JIT from removing the decoded strings
+	private static long sink;
+
+	private final ByteBuf buffer = PooledByteBufAllocator.DEFAULT.directBuffer(256);
+	private final int operations;
+
+	/**
+	 * Create a new NioUtilBenchmark
+	 *
+	 * @param operations Amount of strings read or written per round
+	 */
+	public NioUtilBenchmark(int operations) {
+		this.operations = operations;
+	}
+
+	/**
+	 * Run the benchmark
+	 */
+	public void run() {
+		System.out.println("codec                         ns/op   bytes/op");
+
+		for(String text : new String[] { ASCII, UNICODE }) {
+			System.out.println((text == ASCII ? "ASCII" : "Unicode") + " (" + text.length() + " chars)");
+
+			measure("  write, byte[] copy", () -> writeString(text));
+			measure("  write, byte[] copy, VarInt", () -> writeVarString(text));
+			measure("  write, in place", () -> writeInPlace(text));
+
+			writeString(text);
+			measure("  read, ByteBuf copy", this::readLegacy);
+
+			writeString(text);
+			measure("  read, in place", this::readString);
+
+			writeVarString(text);
+			measure("  read, in place, VarInt", this::readVarString);
+		}
+
+		buffer.release();
+	}
+
+	/**
+	 * Run a codec for a few rounds and print the last one
+	 *
+	 * @param name Codec name
+	 * @param codec Codec, run once per operation
+	 */
+	private void measure(String name, Runnable codec) {
+		long time = 0, allocated = 0;
+
+		// Every round but the last warms up
+		for(int round = 0; round < ROUNDS; round++) {
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+
+			for(int i = 0; i < operations; i++) {
+				codec.run();
+			}
+
+			time = System.nanoTime() - start;
+			allocated = allocatedBytes() - bytes;
+		}
+
+		System.out.printf("%-28s %7.1f %10.1f%n", name, (double) time / operations, (double) allocated / operations);
+	}
+
+	private void writeInPlace(String text) {
+		buffer.clear();
+
+		int start = buffer.writerIndex();
+
+		buffer.writeShort(0);
+		buffer.setShort(start, ByteBufUtil.writeUtf8(buffer, text));
+	}
+
+	private void writeString(String text) {
+		buffer.clear();
+		NioUtil.writeString(buffer, text);
+	}
+
+	private void writeVarString(String text) {
+		buffer.clear();
+		NioUtil.writeVarString(buffer, text);
+	}
+
+	private void readLegacy() {
+		buffer.readerIndex(0);
+
+		// The old readString never released this buffer, it is released here
+		// so the benchmark does not run out of memory
+		ByteBuf copy = buffer.readBytes(buffer.readShort());
+
+		sink += copy.toString(StandardCharsets.UTF_8).length();
+		copy.release();
+	}
+
+	private void readString() {
+		buffer.readerIndex(0);
+		sink += NioUtil.readString(buffer).length();
+	}
+
+	private void readVarString() {
+		buffer.readerIndex(0);
+		sink += NioUtil.readVarString(buffer).length();
+	}
+
+	/**
+	 * Returns the amount of bytes allocated by the current thread so far,
+	 * or 0 when the JVM can not tell
+	 *
+	 * @return long
+	 */
+	static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		if(!(threads instanceof com.sun.management.ThreadMXBean)) return 0;
+
+		return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	public static void main(String[] args) {
+		int operations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPERATIONS;
+
+		new NioUtilBenchmark(operations).run();
+
+		System.out.println("(" + sink + ")");
+	}
+
+}
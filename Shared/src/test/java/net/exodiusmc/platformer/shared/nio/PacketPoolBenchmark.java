@@ -0,0 +1,115 @@
+package net.exodiusmc.platformer.shared.nio;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import net.exodiusmc.platformer.shared.packets.ChatReceivePacket;
+import net.exodiusmc.platformer.shared.packets.RoomJoinPacket;
+
+import java.util.function.Supplier;
+
+/**
+ * Measures the allocation rate of decoding inbound packets, with and without
+ * recycling. Every operation does what the pipeline does for an inbound frame:
+ * create an instance, decode the payload into it and, when pooled, hand it back
+ * to its {@link PacketPool} once dispatched. The decoded strings are allocated
+ * either way, the difference is the packet instance itself.
+ * <br>
+ * Usage: <i>PacketPoolBenchmark [operations]</i>
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class PacketPoolBenchmark {
+
+	public static final int DEFAULT_OPERATIONS = 10_000_000;
+	public static final int ROUNDS = 5;
+
+	// Keeps the JIT from removing the decoded packets
+	private static int sink;
+
+	private final int operations;
+
+	/**
+	 * Create a new PacketPoolBenchmark
+	 *
+	 * @param operations Amount of packets decoded per round
+	 */
+	public PacketPoolBenchmark(int operations) {
+		this.operations = operations;
+	}
+
+	/**
+	 * Run the benchmark
+	 */
+	public void run() {
+		System.out.println("packet                          ns/op   bytes/op");
+
+		measure(new PacketInfo(1, ChatReceivePacket.class),
+			new ChatReceivePacket("lobby", "Macjuul", "Anybody up for another round?", 42));
+
+		measure(new PacketInfo(2, RoomJoinPacket.class), new RoomJoinPacket("lobby"));
+	}
+
+	/**
+	 * Decode a packet with and without its pool, and print the results
+	 *
+	 * @param info PacketInfo of a recyclable packet
+	 * @param sample Packet to decode
+	 */
+	private void measure(PacketInfo info, Packet sample) {
+		ByteBuf frame = PooledByteBufAllocator.DEFAULT.directBuffer();
+
+		sample.encodePayload(frame);
+
+		System.out.println(info.getPacketClass().getSimpleName() + " (" + frame.readableBytes() + " bytes)");
+
+		measure("  new instance", frame, () -> info.getFactory().get(), false);
+		measure("  pooled instance", frame, info::create, true);
+
+		frame.release();
+	}
+
+	/**
+	 * Decode the frame for a few rounds and print the last one
+	 *
+	 * @param name Name of the run
+	 * @param frame Encoded payload
+	 * @param factory Creates the instance to decode into
+	 * @param pooled Release the instance after decoding
+	 */
+	private void measure(String name, ByteBuf frame, Supplier<Packet> factory, boolean pooled) {
+		long time = 0, allocated = 0;
+
+		// Every round but the last warms up
+		for(int round = 0; round < ROUNDS; round++) {
+			long bytes = NioUtilBenchmark.allocatedBytes();
+			long start = System.nanoTime();
+
+			for(int i = 0; i < operations; i++) {
+				Packet packet = factory.get();
+
+				frame.readerIndex(0);
+				packet.decodePayload(frame);
+
+				sink += packet.hashCode();
+
+				if(pooled) PacketPool.release(packet);
+			}
+
+			time = System.nanoTime() - start;
+			allocated = NioUtilBenchmark.allocatedBytes() - bytes;
+		}
+
+		System.out.printf("%-30s %7.1f %10.1f%n", name, (double) time / operations, (double) allocated / operations);
+	}
+
+	public static void main(String[] args) {
+		int operations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPERATIONS;
+
+		new PacketPoolBenchmark(operations).run();
+
+		System.out.println("(" + sink + ")");
+	}
+
+}
@@ -0,0 +1,173 @@
+package net.exodiusmc.platformer.shared.nio.server;
+
+import net.exodiusmc.platformer.shared.TransferPackets;
+import net.exodiusmc.platformer.shared.nio.HookType;
+import net.exodiusmc.platformer.shared.nio.Transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the connection accept rate of a {@link NetworkServer} with a
+ * single acceptor and with multiple acceptors bound to the same port.
+ * <br>
+ * Client threads open plain sockets and close them right away, so the
+ * accept loop is the bottleneck. The server counts every initialized
+ * connection through the {@link HookType#CONNECTED} hook and closes it.
+ * Multiple acceptors require the epoll transport, on any other transport
+ * both runs bind a single channel.
+ * <br>
+ * Usage: <i>AcceptorBenchmark [connections] [acceptors] [port]</i>
+ *
+ * @author Macjuul
+ * @version 1.0.0
+ * @since 18-10-2026
+ */
+public class AcceptorBenchmark {
+
+	public static final int DEFAULT_CONNECTIONS = 50_000;
+	public static final int CLIENT_THREADS = 16;
+	public static final int WINDOW = 1024;
+	public static final long ACCEPT_TIMEOUT = 60000;
+
+	private final Logger logger;
+	private final Transport transport;
+	private final int connections;
+	private int port;
+
+	/**
+	 * Create a new AcceptorBenchmark
+	 *
+	 * @param connections Amount of connections opened per run
+	 * @param port First port to run the servers on, one per run
+	 */
+	public AcceptorBenchmark(int connections, int port) {
+		this.connections = connections;
+		this.port = port;
+		this.transport = Transport.AUTO.resolve();
+
+		// Every dropped connection would be logged
+		this.logger = Logger.getLogger("AcceptorBenchmark");
+		this.logger.setLevel(Level.SEVERE);
+	}
+
+	/**
+	 * Run the benchmark
+	 *
+	 * @param acceptors Amount of acceptors to compare with a single one
+	 * @throws InterruptedException When interrupted while waiting for the accepts
+	 */
+	public void run(int acceptors) throws InterruptedException {
+		System.out.println("transport: " + transport);
+		System.out.println("acceptors   effective   connections    accepts/s");
+
+		// Warm up
+		measure(1, false);
+
+		measure(1, true);
+		measure(acceptors, true);
+	}
+
+	/**
+	 * Open the connections against a server with the given acceptors, and print the results
+	 *
+	 * @param acceptors Amount of acceptors
+	 * @param print Print the results
+	 * @throws InterruptedException When interrupted while waiting for the accepts
+	 */
+	private void measure(int acceptors, boolean print) throws InterruptedException {
+		AtomicLong opened = new AtomicLong();
+		AtomicLong accepted = new AtomicLong();
+		InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+
+		NetworkServer server = NetworkServer.setup(port++)
+			.useLogger(logger)
+			.packets(TransferPackets.list())
+			.acceptors(acceptors)
+			.hook(HookType.CONNECTED, conn -> {
+				accepted.incrementAndGet();
+
+				// Close right away, the server could otherwise run out of file descriptors
+				conn.channel().close();
+			})
+			.buildAndStart();
+
+		// The channels are bound asynchronously
+		while(!server.isActive()) Thread.sleep(1);
+
+		List<Thread> threads = new ArrayList<>(CLIENT_THREADS);
+		long start = System.nanoTime();
+
+		for(int t = 0; t < CLIENT_THREADS; t++) {
+			int count = connections / CLIENT_THREADS + (t < connections % CLIENT_THREADS ? 1 : 0);
+			Thread thread = new Thread(() -> connect(address, count, opened, accepted), "acceptor-bench-" + t);
+
+			thread.start();
+			threads.add(thread);
+		}
+
+		for(Thread thread : threads) thread.join();
+
+		long deadline = System.currentTimeMillis() + ACCEPT_TIMEOUT;
+
+		while(accepted.get() < connections) {
+			if(System.currentTimeMillis() > deadline) {
+				server.stop();
+				throw new IllegalStateException("Only " + accepted.get() + " of " + connections + " connections were accepted");
+			}
+
+			Thread.yield();
+		}
+
+		long time = System.nanoTime() - start;
+
+		if(print) {
+			System.out.printf("%9d %11d %13d %12.0f%n", acceptors, transport == Transport.EPOLL ? acceptors : 1,
+				connections, connections / (time / 1e9));
+		}
+
+		server.stop();
+	}
+
+	/**
+	 * Open and immediately close connections
+	 *
+	 * @param address Server address
+	 * @param count Amount of connections
+	 * @param opened Connections opened by all threads
+	 * @param accepted Connections accepted by the server
+	 */
+	private static void connect(InetSocketAddress address, int count, AtomicLong opened, AtomicLong accepted) {
+		for(int i = 0; i < count; i++) {
+			// Don't run ahead of the server, every pending connection holds a file descriptor
+			while(opened.get() - accepted.get() > WINDOW) Thread.yield();
+
+			opened.incrementAndGet();
+
+			try(Socket socket = new Socket()) {
+				// Reset instead of a graceful close, so the client ports are not stuck in TIME_WAIT
+				socket.setSoLinger(true, 0);
+				socket.connect(address);
+			} catch(IOException e) {
+				throw new IllegalStateException("Could not connect to " + address, e);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int connections = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONNECTIONS;
+		int acceptors = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int port = args.length > 2 ? Integer.parseInt(args[2]) : 25590;
+
+		new AcceptorBenchmark(connections, port).run(acceptors);
+
+		System.exit(0);
+	}
+
+}